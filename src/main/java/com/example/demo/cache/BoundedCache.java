@@ -0,0 +1,157 @@
+package com.example.demo.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Size-capped in-process cache with a per-entry time to live and LRU eviction.
+ * Loads happen outside the lock; a load that races with an invalidation is not stored.
+ */
+public class BoundedCache<K, V> {
+
+	private final int maxSize;
+	private final long ttlNanos;
+	private final LongSupplier ticker;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	private final Map<K, Entry<V>> entries;
+	private long generation;
+
+	public BoundedCache(int maxSize, long ttl, TimeUnit unit) {
+		this(maxSize, ttl, unit, System::nanoTime);
+	}
+
+	public BoundedCache(int maxSize, long ttl, TimeUnit unit, LongSupplier ticker) {
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("maxSize must be positive");
+		}
+		this.maxSize = maxSize;
+		this.ttlNanos = unit.toNanos(ttl);
+		this.ticker = ticker;
+		this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+				if (size() > BoundedCache.this.maxSize) {
+					evictions.increment();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	public V get(K key) {
+		synchronized (this) {
+			Entry<V> entry = entries.get(key);
+			if (entry != null) {
+				if (!isExpired(entry)) {
+					hits.increment();
+					return entry.value;
+				}
+				entries.remove(key);
+				evictions.increment();
+			}
+		}
+		misses.increment();
+		return null;
+	}
+
+	public V get(K key, Function<? super K, ? extends V> loader) {
+		long loadGeneration;
+		synchronized (this) {
+			V cached = get(key);
+			if (cached != null) {
+				return cached;
+			}
+			loadGeneration = generation;
+		}
+		V value = loader.apply(key);
+		if (value != null) {
+			synchronized (this) {
+				if (loadGeneration == generation) {
+					entries.put(key, new Entry<>(value, ticker.getAsLong() + ttlNanos));
+				}
+			}
+		}
+		return value;
+	}
+
+	public synchronized void put(K key, V value) {
+		entries.put(key, new Entry<>(value, ticker.getAsLong() + ttlNanos));
+	}
+
+	public synchronized void invalidate(K key) {
+		generation++;
+		entries.remove(key);
+	}
+
+	public synchronized void invalidateAll() {
+		generation++;
+		entries.clear();
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public Stats stats() {
+		return new Stats(hits.sum(), misses.sum(), evictions.sum(), size(), maxSize);
+	}
+
+	private boolean isExpired(Entry<V> entry) {
+		return ticker.getAsLong() - entry.expiresAt >= 0;
+	}
+
+	private static final class Entry<V> {
+		private final V value;
+		private final long expiresAt;
+
+		private Entry(V value, long expiresAt) {
+			this.value = value;
+			this.expiresAt = expiresAt;
+		}
+	}
+
+	public static final class Stats {
+		private final long hits;
+		private final long misses;
+		private final long evictions;
+		private final int size;
+		private final int maxSize;
+
+		public Stats(long hits, long misses, long evictions, int size, int maxSize) {
+			this.hits = hits;
+			this.misses = misses;
+			this.evictions = evictions;
+			this.size = size;
+			this.maxSize = maxSize;
+		}
+
+		public long getHits() {
+			return hits;
+		}
+
+		public long getMisses() {
+			return misses;
+		}
+
+		public long getEvictions() {
+			return evictions;
+		}
+
+		public int getSize() {
+			return size;
+		}
+
+		public int getMaxSize() {
+			return maxSize;
+		}
+	}
+}
@@ -1,9 +1,11 @@
 package com.example.demo.controllers;
 
-import java.util.Optional;
-import java.util.stream.IntStream;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -12,58 +14,57 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.example.demo.model.persistence.Cart;
-import com.example.demo.model.persistence.Item;
-import com.example.demo.model.persistence.User;
-import com.example.demo.model.persistence.repositories.CartRepository;
-import com.example.demo.model.persistence.repositories.ItemRepository;
-import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.requests.CartAction;
 import com.example.demo.model.requests.ModifyCartRequest;
+import com.example.demo.model.responses.CartResponse;
+import com.example.demo.querybudget.QueryBudget;
+import com.example.demo.services.CartService;
 
 @RestController
+@QueryBudget(6)
 @RequestMapping("/api/cart")
 public class CartController {
 	
 	@Autowired
-	private UserRepository userRepository;
+	private CartService cartService;
 	
-	@Autowired
-	private CartRepository cartRepository;
-	
-	@Autowired
-	private ItemRepository itemRepository;
+	private static final int MAX_BATCH_SIZE = 100;
 	
 	@PostMapping("/addToCart")
-	public ResponseEntity<Cart> addTocart(@RequestBody ModifyCartRequest request) {
-		User user = userRepository.findByUsername(request.getUsername());
-		if(user == null) {
-			return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+	public ResponseEntity<CartResponse> addTocart(@RequestBody ModifyCartRequest request) {
+		return respond(() -> cartService.modify(request.getUsername(), request.getItemId(),
+				request.getQuantity(), CartAction.ADD));
+	}
+	
+	@PostMapping("/removeFromCart")
+	public ResponseEntity<CartResponse> removeFromcart(@RequestBody ModifyCartRequest request) {
+		return respond(() -> cartService.modify(request.getUsername(), request.getItemId(),
+				request.getQuantity(), CartAction.REMOVE));
+	}
+	
+	@PostMapping("/batch")
+	public ResponseEntity<CartResponse> modifyCart(@RequestBody List<ModifyCartRequest> requests) {
+		if(requests == null || requests.isEmpty() || requests.size() > MAX_BATCH_SIZE) {
+			return ResponseEntity.badRequest().build();
 		}
-		Optional<Item> item = itemRepository.findById(request.getItemId());
-		if(!item.isPresent()) {
-			return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+		String username = requests.get(0).getUsername();
+		if(requests.stream().anyMatch(request -> !Objects.equals(username, request.getUsername()))) {
+			return ResponseEntity.badRequest().build();
 		}
-		Cart cart = user.getCart();
-		IntStream.range(0, request.getQuantity())
-			.forEach(i -> cart.addItem(item.get()));
-		cartRepository.save(cart);
-		return ResponseEntity.ok(cart);
+		return respond(() -> cartService.applyBatch(username, requests));
 	}
 	
-	@PostMapping("/removeFromCart")
-	public ResponseEntity<Cart> removeFromcart(@RequestBody ModifyCartRequest request) {
-		User user = userRepository.findByUsername(request.getUsername());
-		if(user == null) {
-			return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+	private ResponseEntity<CartResponse> respond(Supplier<Cart> modification) {
+		Cart cart;
+		try {
+			cart = modification.get();
+		} catch (OptimisticLockingFailureException e) {
+			return ResponseEntity.status(HttpStatus.CONFLICT).build();
 		}
-		Optional<Item> item = itemRepository.findById(request.getItemId());
-		if(!item.isPresent()) {
+		if(cart == null) {
 			return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
 		}
-		Cart cart = user.getCart();
-		IntStream.range(0, request.getQuantity())
-			.forEach(i -> cart.removeItem(item.get()));
-		cartRepository.save(cart);
-		return ResponseEntity.ok(cart);
+		return ResponseEntity.ok(CartResponse.from(cart));
 	}
 		
 }
@@ -1,40 +1,113 @@
 package com.example.demo.controllers;
 
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.demo.cache.BoundedCache;
 import com.example.demo.model.persistence.Item;
 import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.responses.ItemSuggestion;
+import com.example.demo.querybudget.QueryBudget;
+import com.example.demo.services.CatalogCache;
+import com.example.demo.services.ItemSearchIndex;
+import com.example.demo.services.ItemStreamService;
+import com.example.demo.services.ItemSuggester;
 
 @RestController
+@QueryBudget(2)
 @RequestMapping("/api/item")
 public class ItemController {
 
+	public static final String NEXT_CURSOR_HEADER = "X-Next-After";
+	private static final int MAX_PAGE_SIZE = 500;
+	private static final int MAX_SEARCH_RESULTS = 100;
+
 	@Autowired
 	private ItemRepository itemRepository;
+
+	@Autowired
+	private CatalogCache catalogCache;
+
+	@Autowired
+	private ItemStreamService itemStreamService;
+
+	@Autowired
+	private ItemSearchIndex itemSearchIndex;
+
+	@Autowired
+	private ItemSuggester itemSuggester;
 	
 	@GetMapping
 	public ResponseEntity<List<Item>> getItems() {
-		return ResponseEntity.ok(itemRepository.findAll());
+		return ResponseEntity.ok(catalogCache.findAll());
+	}
+	
+	@GetMapping(params = "limit")
+	public ResponseEntity<List<Item>> getItemsPage(@RequestParam int limit,
+			@RequestParam(defaultValue = "0") long after) {
+		if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+			return ResponseEntity.badRequest().build();
+		}
+		List<Item> items = itemRepository.findByIdGreaterThanOrderByIdAsc(after, PageRequest.of(0, limit));
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+		if (items.size() == limit) {
+			response.header(NEXT_CURSOR_HEADER, String.valueOf(items.get(items.size() - 1).getId()));
+		}
+		return response.body(items);
+	}
+	
+	@GetMapping("/stream")
+	public ResponseEntity<StreamingResponseBody> streamItems() {
+		return ResponseEntity.ok()
+				.contentType(MediaType.APPLICATION_JSON_UTF8)
+				.body(itemStreamService::writeAll);
 	}
 	
 	@GetMapping("/{id}")
 	public ResponseEntity<Item> getItemById(@PathVariable Long id) {
-		return ResponseEntity.of(itemRepository.findById(id));
+		return ResponseEntity.of(catalogCache.findById(id));
 	}
 	
 	@GetMapping("/name/{name}")
 	public ResponseEntity<List<Item>> getItemsByName(@PathVariable String name) {
-		List<Item> items = itemRepository.findByName(name);
+		List<Item> items = catalogCache.findByName(name);
 		return items == null || items.isEmpty() ? ResponseEntity.notFound().build()
 				: ResponseEntity.ok(items);
 			
 	}
 	
+	@GetMapping("/search")
+	public ResponseEntity<List<Item>> searchItems(@RequestParam("q") String query,
+			@RequestParam(defaultValue = "20") int limit) {
+		if (query.trim().isEmpty() || limit <= 0 || limit > MAX_SEARCH_RESULTS) {
+			return ResponseEntity.badRequest().build();
+		}
+		return ResponseEntity.ok(itemSearchIndex.search(query, limit));
+	}
+	
+	@GetMapping("/suggest")
+	public ResponseEntity<List<ItemSuggestion>> suggestItems(@RequestParam String prefix,
+			@RequestParam(defaultValue = "10") int limit) {
+		if (prefix.isEmpty() || limit <= 0) {
+			return ResponseEntity.badRequest().build();
+		}
+		return ResponseEntity.ok(itemSuggester.suggest(prefix, limit));
+	}
+	
+	@GetMapping("/cache/stats")
+	public ResponseEntity<Map<String, BoundedCache.Stats>> getCacheStats() {
+		return ResponseEntity.ok(catalogCache.stats());
+	}
+	
 }
@@ -1,27 +1,50 @@
 package com.example.demo.controllers;
 
+import java.net.URI;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.UserOrder;
 import com.example.demo.model.persistence.repositories.OrderRepository;
 import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.responses.OrderResponse;
+import com.example.demo.model.responses.OrderSubmission;
+import com.example.demo.querybudget.QueryBudget;
+import com.example.demo.security.AuthenticatedUser;
+import com.example.demo.services.CartService;
+import com.example.demo.services.IdempotentOrderService;
+import com.example.demo.services.OrderService;
+import com.example.demo.services.OrderSubmissionQueue;
 
 @RestController
+@QueryBudget(5)
 @RequestMapping("/api/order")
 public class OrderController {
 
 	private final static Logger logger = LoggerFactory.getLogger(OrderController.class);
+
+	public static final String NEXT_CURSOR_HEADER = "X-Next-Before";
+	private static final int MAX_HISTORY_PAGE_SIZE = 200;
+	private static final String RETRY_AFTER_SECONDS = "1";
+	public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+	private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
 	
 	@Autowired
 	private UserRepository userRepository;
@@ -29,30 +52,140 @@ public class OrderController {
 	@Autowired
 	private OrderRepository orderRepository;
 	
+	@Autowired
+	private CartService cartService;
+	
+	@Autowired
+	private OrderService orderService;
+	
+	@Autowired
+	private OrderSubmissionQueue orderSubmissionQueue;
+	
+	@Autowired
+	private IdempotentOrderService idempotentOrderService;
+	
 	
+	/**
+	 * Creates an order from the user's cart. With an {@value #IDEMPOTENCY_KEY_HEADER} header a
+	 * retry returns the order created by the first request instead of creating another; 409
+	 * means the first request with that key is still in progress. The budget covers the user and
+	 * cart reads, the order inserts, one merge per sales rollup and the outbox event.
+	 */
+	@QueryBudget(10)
 	@PostMapping("/submit/{username}")
-	public ResponseEntity<UserOrder> submit(@PathVariable String username) {
-		User user = userRepository.findByUsername(username);
+	public ResponseEntity<OrderResponse> submit(@PathVariable String username,
+			@RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+		if(idempotencyKey != null && (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH)) {
+			return ResponseEntity.badRequest().build();
+		}
+		User user = findUser(username);
 		if(user == null) {
 			logger.warn("OrderController::submit - User not found.");
 			return ResponseEntity.notFound().build();
 		}
-		UserOrder order = UserOrder.createFromCart(user.getCart());
-		orderRepository.save(order);
+		if(idempotencyKey != null) {
+			OrderResponse order = idempotentOrderService.submitOnce(username, idempotencyKey, () -> createOrder(user));
+			if(order == null) {
+				logger.warn("OrderController::submit - Idempotency key for user {} is still in progress", username);
+				return ResponseEntity.status(HttpStatus.CONFLICT).build();
+			}
+			return ResponseEntity.ok(order);
+		}
+		UserOrder order = orderService.place(createOrder(user));
 
 		logger.info("OrderController::submit - Submit order successfully for user {}", username);
-		return ResponseEntity.ok(order);
+		return ResponseEntity.ok(OrderResponse.from(order));
+	}
+	
+	/**
+	 * Queues the user's current cart as an order and returns 202 with a reference to poll at
+	 * {@code /api/order/status/{reference}}. Returns 503 with {@code Retry-After} when the
+	 * queue is full.
+	 */
+	@PostMapping("/submitAsync/{username}")
+	public ResponseEntity<OrderSubmission> submitAsync(@PathVariable String username) {
+		User user = findUser(username);
+		if(user == null) {
+			logger.warn("OrderController::submitAsync - User not found.");
+			return ResponseEntity.notFound().build();
+		}
+		OrderSubmission submission = orderSubmissionQueue.submit(user, cartService.currentCart(user));
+		if(submission == null) {
+			logger.warn("OrderController::submitAsync - Order queue is full, rejecting order for user {}", username);
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+					.header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+					.build();
+		}
+
+		logger.info("OrderController::submitAsync - Queued order {} for user {}", submission.getReference(), username);
+		return ResponseEntity.accepted()
+				.location(URI.create("/api/order/status/" + submission.getReference()))
+				.body(submission);
+	}
+
+	@GetMapping("/status/{reference}")
+	public ResponseEntity<OrderSubmission> getSubmissionStatus(@PathVariable String reference) {
+		OrderSubmission submission = orderSubmissionQueue.status(reference);
+		if(submission == null) {
+			return ResponseEntity.notFound().build();
+		}
+		return ResponseEntity.ok(submission);
 	}
 	
+	/**
+	 * One page of order history, newest first. Pass the {@value #NEXT_CURSOR_HEADER} header
+	 * of a full page back as {@code before} to get the next one.
+	 */
 	@GetMapping("/history/{username}")
-	public ResponseEntity<List<UserOrder>> getOrdersForUser(@PathVariable String username) {
-		User user = userRepository.findByUsername(username);
+	public ResponseEntity<List<OrderResponse>> getOrdersForUser(@PathVariable String username,
+			@RequestParam(defaultValue = "50") int limit,
+			@RequestParam(required = false) Long before) {
+		if(limit <= 0 || limit > MAX_HISTORY_PAGE_SIZE) {
+			return ResponseEntity.badRequest().build();
+		}
+		User user = findUserReference(username);
 		if(user == null) {
 			logger.warn("OrderController::getOrdersForUser - User not found.");
 			return ResponseEntity.notFound().build();
 		}
 
 		logger.info("OrderController::getOrdersForUser - Getting orders for user {}", username);
-		return ResponseEntity.ok(orderRepository.findByUser(user));
+		List<Long> ids = orderRepository.findIdsByUserBefore(user,
+				before == null ? Long.MAX_VALUE : before, PageRequest.of(0, limit));
+		List<OrderResponse> orders = ids.isEmpty() ? Collections.emptyList()
+				: orderRepository.findWithLinesByIdIn(ids).stream()
+						.map(OrderResponse::from)
+						.collect(Collectors.toList());
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+		if(ids.size() == limit) {
+			response.header(NEXT_CURSOR_HEADER, String.valueOf(ids.get(ids.size() - 1)));
+		}
+		return response.body(orders);
+	}
+
+	/** Loads the user, by the id in the caller's own token when there is one. */
+	private User findUser(String username) {
+		Long userId = AuthenticatedUser.userIdFor(username);
+		if(userId != null) {
+			return userRepository.findById(userId).orElse(null);
+		}
+		return userRepository.findByUsername(username);
+	}
+
+	/**
+	 * The user for queries that only need its id. For the caller's own token this is an
+	 * unloaded reference, so it must not be dereferenced: the id may no longer exist.
+	 */
+	private User findUserReference(String username) {
+		Long userId = AuthenticatedUser.userIdFor(username);
+		if(userId != null) {
+			return userRepository.getOne(userId);
+		}
+		return userRepository.findByUsername(username);
+	}
+
+	private UserOrder createOrder(User user) {
+		cartService.flush(user);
+		return UserOrder.createFromCart(cartService.currentCart(user));
 	}
 }
@@ -0,0 +1,24 @@
+package com.example.demo.controllers;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.demo.outbox.OutboxDispatcher;
+
+@RestController
+@RequestMapping("/api/outbox")
+public class OutboxController {
+
+	@Autowired
+	private OutboxDispatcher outboxDispatcher;
+
+	@GetMapping("/stats")
+	public ResponseEntity<List<OutboxDispatcher.SinkStats>> getStats() {
+		return ResponseEntity.ok(outboxDispatcher.getStats());
+	}
+}
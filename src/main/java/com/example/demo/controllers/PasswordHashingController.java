@@ -0,0 +1,22 @@
+package com.example.demo.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.demo.security.BoundedPasswordEncoder;
+
+@RestController
+@RequestMapping("/api/password-hashing")
+public class PasswordHashingController {
+
+	@Autowired
+	private BoundedPasswordEncoder boundedPasswordEncoder;
+
+	@GetMapping("/stats")
+	public ResponseEntity<BoundedPasswordEncoder.Stats> getStats() {
+		return ResponseEntity.ok(boundedPasswordEncoder.getStats());
+	}
+}
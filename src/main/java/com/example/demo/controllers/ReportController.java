@@ -0,0 +1,87 @@
+package com.example.demo.controllers;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.demo.model.persistence.ItemSales;
+import com.example.demo.model.persistence.SalesBucket;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.UserSales;
+import com.example.demo.model.persistence.repositories.ItemSalesRepository;
+import com.example.demo.model.persistence.repositories.SalesBucketRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.persistence.repositories.UserSalesRepository;
+import com.example.demo.querybudget.QueryBudget;
+import com.example.demo.security.AuthenticatedUser;
+
+/**
+ * Reads the sales rollups. Every endpoint is an index lookup or range scan, so its cost
+ * depends on the size of the answer, not on the number of orders.
+ */
+@RestController
+@QueryBudget(4)
+@RequestMapping("/api/report")
+public class ReportController {
+
+	private static final int MAX_TOP_ITEMS = 100;
+	private static final long MAX_DAYS = 366;
+
+	@Autowired
+	private ItemSalesRepository itemSalesRepository;
+
+	@Autowired
+	private UserSalesRepository userSalesRepository;
+
+	@Autowired
+	private SalesBucketRepository salesBucketRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@GetMapping("/items/top")
+	public ResponseEntity<List<ItemSales>> getTopItems(@RequestParam(defaultValue = "units") String by,
+			@RequestParam(defaultValue = "10") int limit) {
+		if (!by.equals("units") && !by.equals("revenue") || limit <= 0 || limit > MAX_TOP_ITEMS) {
+			return ResponseEntity.badRequest().build();
+		}
+		return ResponseEntity.ok(itemSalesRepository.findAll(
+				PageRequest.of(0, limit, Sort.by(Sort.Direction.DESC, by))).getContent());
+	}
+
+	@GetMapping("/users/{username}")
+	public ResponseEntity<UserSales> getUserSales(@PathVariable String username) {
+		Long userId = AuthenticatedUser.userIdFor(username);
+		if (userId == null) {
+			User user = userRepository.findByUsername(username);
+			if (user == null) {
+				return ResponseEntity.notFound().build();
+			}
+			userId = user.getId();
+		}
+		return userSalesRepository.findById(userId)
+				.map(ResponseEntity::ok)
+				.orElseGet(() -> ResponseEntity.notFound().build());
+	}
+
+	@GetMapping("/daily")
+	public ResponseEntity<List<SalesBucket>> getDailySales(
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+		if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) >= MAX_DAYS) {
+			return ResponseEntity.badRequest().build();
+		}
+		return ResponseEntity.ok(salesBucketRepository.findByDateBetweenOrderByDateAsc(from, to));
+	}
+}
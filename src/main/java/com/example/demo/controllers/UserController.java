@@ -1,13 +1,17 @@
 package com.example.demo.controllers;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -17,24 +21,31 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.example.demo.model.persistence.Cart;
 import com.example.demo.model.persistence.User;
-import com.example.demo.model.persistence.repositories.CartRepository;
 import com.example.demo.model.persistence.repositories.UserRepository;
 import com.example.demo.model.requests.CreateUserRequest;
+import com.example.demo.model.responses.UserImportReport;
+import com.example.demo.querybudget.QueryBudget;
+import com.example.demo.security.PasswordHashingRejectedException;
+import com.example.demo.services.UserImportService;
 
 @RestController
+@QueryBudget(4)
 @RequestMapping("/api/user")
 public class UserController {
 
 	private final static Logger logger = LoggerFactory.getLogger(UserController.class);
+
+	private static final String RETRY_AFTER_SECONDS = "1";
+	private static final String CSV_MEDIA_TYPE = "text/csv";
 	
 	@Autowired
 	private UserRepository userRepository;
 	
 	@Autowired
-	private CartRepository cartRepository;
+	private PasswordEncoder bCryptPasswordEncoder;
 
 	@Autowired
-	private BCryptPasswordEncoder bCryptPasswordEncoder;
+	private UserImportService userImportService;
 
 	@GetMapping("/id/{id}")
 	public ResponseEntity<User> findById(@PathVariable Long id) {
@@ -63,32 +74,57 @@ public class UserController {
 	@PostMapping("/create")
 	public ResponseEntity<User> createUser(@RequestBody CreateUserRequest createUserRequest) {
 		try {
-			User user = new User();
-			user.setUsername(createUserRequest.getUsername());
-			Cart cart = new Cart();
-			cartRepository.save(cart);
-			user.setCart(cart);
-			user.setUsername(createUserRequest.getUsername());
-
-			if (!isPasswordValid(createUserRequest.getPassword()) ||
+			if (!CreateUserRequest.isPasswordValid(createUserRequest.getPassword()) ||
 					!createUserRequest.getPassword().equals(createUserRequest.getConfirmPassword())) {
 				logger.info("UserController::createUser - Password is invalid, try again.");
 				return ResponseEntity.badRequest().build();
 			}
 
+			User user = new User();
+			user.setUsername(createUserRequest.getUsername());
+			user.setCart(new Cart());
+
 			user.setPassword(bCryptPasswordEncoder.encode(createUserRequest.getPassword()));
 			userRepository.save(user);
 
 			logger.info("UserController::createUser - Create user successful with username {}", user.getUsername());
 			return ResponseEntity.ok(user);
+		} catch (PasswordHashingRejectedException e) {
+			logger.warn("UserController::createUser - Password hashing is saturated, rejecting user {}", createUserRequest.getUsername());
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+					.header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+					.build();
 		} catch (Exception e) {
 			logger.error("UserController::createUser - Error creating user with name {}", createUserRequest.getUsername());
 			return null;
 		}
 	}
 
-	private boolean isPasswordValid(String password) {
-		return password != null && password.length() > 5;
+	/**
+	 * Creates many users from a JSON array of {@link CreateUserRequest}s and reports the outcome
+	 * of every row. A row that fails validation or names a taken username is skipped, not fatal.
+	 */
+	@QueryBudget(0)
+	@PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<UserImportReport> importUsersFromJson(InputStream body) throws IOException {
+		return respond(userImportService.importJson(body));
+	}
+
+	/** Same as the JSON import, for CSV with a {@code username,password[,confirmPassword]} header. */
+	@QueryBudget(0)
+	@PostMapping(value = "/import", consumes = CSV_MEDIA_TYPE)
+	public ResponseEntity<UserImportReport> importUsersFromCsv(InputStream body) throws IOException {
+		try {
+			return respond(userImportService.importCsv(body));
+		} catch (IllegalArgumentException e) {
+			logger.info("UserController::importUsersFromCsv - Rejected CSV import: {}", e.getMessage());
+			return ResponseEntity.badRequest().build();
+		}
+	}
+
+	private ResponseEntity<UserImportReport> respond(UserImportReport report) {
+		logger.info("UserController::importUsers - Imported {} users, rejected {}", report.getCreated(), report.getRejected());
+		return ResponseEntity.ok(report);
 	}
 	
 }
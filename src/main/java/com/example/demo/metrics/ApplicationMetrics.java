@@ -0,0 +1,127 @@
+package com.example.demo.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.cache.BoundedCache;
+import com.example.demo.outbox.OutboxDispatcher;
+import com.example.demo.security.BoundedPasswordEncoder;
+import com.example.demo.security.TokenVerifier;
+import com.example.demo.services.CatalogCache;
+import com.example.demo.services.OrderSubmissionQueue;
+import com.example.demo.services.TransactionalCartStore;
+import com.example.demo.services.WriteBehindCartStore;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publishes the counters the services already keep for their stats endpoints: cart store
+ * conflicts and flushes, the async order queue, the catalog and token caches, outbox sinks and
+ * the BCrypt pool. Beans that are switched off by configuration are skipped.
+ */
+@Component
+public class ApplicationMetrics implements MeterBinder {
+
+	private final ObjectProvider<TransactionalCartStore> transactionalCartStore;
+	private final ObjectProvider<WriteBehindCartStore> writeBehindCartStore;
+	private final ObjectProvider<OrderSubmissionQueue> orderSubmissionQueue;
+	private final ObjectProvider<CatalogCache> catalogCache;
+	private final ObjectProvider<TokenVerifier> tokenVerifier;
+	private final ObjectProvider<OutboxDispatcher> outboxDispatcher;
+	private final ObjectProvider<PasswordEncoder> passwordEncoder;
+
+	/** Meters only hold their source weakly; the suppliers built in {@link #bindTo} live here. */
+	private final List<Object> sources = new ArrayList<>();
+
+	public ApplicationMetrics(ObjectProvider<TransactionalCartStore> transactionalCartStore,
+			ObjectProvider<WriteBehindCartStore> writeBehindCartStore,
+			ObjectProvider<OrderSubmissionQueue> orderSubmissionQueue, ObjectProvider<CatalogCache> catalogCache,
+			ObjectProvider<TokenVerifier> tokenVerifier, ObjectProvider<OutboxDispatcher> outboxDispatcher,
+			ObjectProvider<PasswordEncoder> passwordEncoder) {
+		this.transactionalCartStore = transactionalCartStore;
+		this.writeBehindCartStore = writeBehindCartStore;
+		this.orderSubmissionQueue = orderSubmissionQueue;
+		this.catalogCache = catalogCache;
+		this.tokenVerifier = tokenVerifier;
+		this.outboxDispatcher = outboxDispatcher;
+		this.passwordEncoder = passwordEncoder;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		transactionalCartStore.ifAvailable(store ->
+				counter(registry, "cart.store.conflicts", store, TransactionalCartStore::getConflictCount, Tags.empty()));
+		writeBehindCartStore.ifAvailable(store -> {
+			gauge(registry, "cart.write-behind.dirty", store, WriteBehindCartStore::getDirtyCount, Tags.empty());
+			counter(registry, "cart.write-behind.flushed.carts", store, WriteBehindCartStore::getFlushedCartCount, Tags.empty());
+			counter(registry, "cart.write-behind.flushes", store, WriteBehindCartStore::getFlushCount, Tags.empty());
+		});
+		orderSubmissionQueue.ifAvailable(queue -> {
+			gauge(registry, "order.queue.depth", queue, OrderSubmissionQueue::getQueueDepth, Tags.empty());
+			counter(registry, "order.queue.written", queue, OrderSubmissionQueue::getWrittenCount, Tags.empty());
+			counter(registry, "order.queue.failed", queue, OrderSubmissionQueue::getFailedCount, Tags.empty());
+			counter(registry, "order.queue.rejected", queue, OrderSubmissionQueue::getRejectedCount, Tags.empty());
+		});
+		catalogCache.ifAvailable(cache -> {
+			for (String name : cache.stats().keySet()) {
+				cache(registry, Tags.of("cache", "catalog." + name), () -> cache.stats().get(name));
+			}
+		});
+		tokenVerifier.ifAvailable(verifier -> {
+			if (verifier.stats() != null) {
+				cache(registry, Tags.of("cache", "token"), verifier::stats);
+			}
+		});
+		outboxDispatcher.ifAvailable(dispatcher -> {
+			for (OutboxDispatcher.SinkStats sink : dispatcher.getStats()) {
+				Supplier<OutboxDispatcher.SinkStats> stats = () -> dispatcher.getStats().stream()
+						.filter(current -> current.getSink().equals(sink.getSink()))
+						.findFirst().orElse(sink);
+				Tags tags = Tags.of("sink", sink.getSink());
+				counter(registry, "outbox.delivered", stats, s -> s.get().getDelivered(), tags);
+				counter(registry, "outbox.failures", stats, s -> s.get().getFailures(), tags);
+				gauge(registry, "outbox.lag.events", stats, s -> s.get().getLagEvents(), tags);
+				gauge(registry, "outbox.lag.millis", stats, s -> s.get().getLagMillis(), tags);
+			}
+		});
+		passwordEncoder.ifAvailable(encoder -> {
+			if (encoder instanceof BoundedPasswordEncoder) {
+				BoundedPasswordEncoder bounded = (BoundedPasswordEncoder) encoder;
+				counter(registry, "security.bcrypt.hashes", bounded, e -> e.getStats().getHashes(), Tags.empty());
+				counter(registry, "security.bcrypt.rejected", bounded, e -> e.getStats().getRejected(), Tags.empty());
+				counter(registry, "security.bcrypt.timed-out", bounded, e -> e.getStats().getTimedOut(), Tags.empty());
+				gauge(registry, "security.bcrypt.queue.depth", bounded, e -> e.getStats().getQueueDepth(), Tags.empty());
+				gauge(registry, "security.bcrypt.active", bounded, e -> e.getStats().getActiveThreads(), Tags.empty());
+				gauge(registry, "security.bcrypt.hash.mean.millis", bounded, e -> e.getStats().getMeanHashMillis(), Tags.empty());
+				gauge(registry, "security.bcrypt.wait.mean.millis", bounded, e -> e.getStats().getMeanWaitMillis(), Tags.empty());
+			}
+		});
+	}
+
+	private void cache(MeterRegistry registry, Tags tags, Supplier<BoundedCache.Stats> stats) {
+		counter(registry, "cache.hits", stats, s -> s.get().getHits(), tags);
+		counter(registry, "cache.misses", stats, s -> s.get().getMisses(), tags);
+		counter(registry, "cache.evictions", stats, s -> s.get().getEvictions(), tags);
+		gauge(registry, "cache.size", stats, s -> s.get().getSize(), tags);
+	}
+
+	private <T> void counter(MeterRegistry registry, String name, T source, ToDoubleFunction<T> count, Tags tags) {
+		sources.add(source);
+		FunctionCounter.builder(name, source, count).tags(tags).register(registry);
+	}
+
+	private <T> void gauge(MeterRegistry registry, String name, T source, ToDoubleFunction<T> value, Tags tags) {
+		sources.add(source);
+		Gauge.builder(name, source, value).tags(tags).register(registry);
+	}
+}
@@ -0,0 +1,85 @@
+package com.example.demo.metrics;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Times every call on the Spring Data repositories as {@code repository.invocations}, tagged
+ * with the repository interface, the method and whether it threw. The registry is looked up
+ * on the first call, so this post-processor does not pull it into early initialization.
+ */
+@Component
+public class RepositoryMetricsPostProcessor implements BeanPostProcessor {
+
+	static final String METRIC = "repository.invocations";
+
+	private final ObjectProvider<MeterRegistry> meterRegistry;
+
+	public RepositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) {
+		if (bean instanceof Repository && bean instanceof Advised) {
+			((Advised) bean).addAdvice(0, new TimingInterceptor(repositoryName(bean)));
+		}
+		return bean;
+	}
+
+	private static String repositoryName(Object repository) {
+		for (Class<?> type : AopProxyUtils.proxiedUserInterfaces(repository)) {
+			if (Repository.class.isAssignableFrom(type) && !type.getName().startsWith("org.springframework.")) {
+				return type.getSimpleName();
+			}
+		}
+		return "unknown";
+	}
+
+	private final class TimingInterceptor implements MethodInterceptor {
+
+		private final String repository;
+		private final Map<Method, Timer> successTimers = new ConcurrentHashMap<>();
+
+		private TimingInterceptor(String repository) {
+			this.repository = repository;
+		}
+
+		@Override
+		public Object invoke(MethodInvocation invocation) throws Throwable {
+			long start = System.nanoTime();
+			try {
+				Object result = invocation.proceed();
+				successTimers.computeIfAbsent(invocation.getMethod(), method -> timer(method, "SUCCESS"))
+						.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+				return result;
+			} catch (Throwable e) {
+				timer(invocation.getMethod(), "ERROR").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+				throw e;
+			}
+		}
+
+		private Timer timer(Method method, String outcome) {
+			return Timer.builder(METRIC)
+					.description("Calls on Spring Data repositories")
+					.tag("repository", repository)
+					.tag("method", method.getName())
+					.tag("outcome", outcome)
+					.register(meterRegistry.getObject());
+		}
+	}
+}
@@ -0,0 +1,41 @@
+package com.example.demo.migration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Folds the legacy {@code cart_items} join table, which held one row per unit, into
+ * {@code cart_line} rows carrying a quantity, then drops it. Does nothing once migrated.
+ */
+@Component
+@Order(MigrationOrder.CART_LINES)
+public class CartLineMigration implements ApplicationRunner {
+
+	private final static Logger logger = LoggerFactory.getLogger(CartLineMigration.class);
+
+	static final String LEGACY_TABLE = "cart_items";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Override
+	@Transactional
+	public void run(ApplicationArguments args) {
+		if (!Tables.exists(jdbcTemplate, LEGACY_TABLE)) {
+			return;
+		}
+		int lines = jdbcTemplate.update("insert into cart_line (id, cart_id, item_id, quantity) "
+				+ "select next value for cart_line_seq, ci.cart_id, ci.items_id, count(*) from cart_items ci "
+				+ "where not exists (select 1 from cart_line cl where cl.cart_id = ci.cart_id and cl.item_id = ci.items_id) "
+				+ "group by ci.cart_id, ci.items_id");
+		jdbcTemplate.execute("drop table cart_items");
+		logger.info("CartLineMigration::run - Migrated {} cart lines from {}", lines, LEGACY_TABLE);
+	}
+}
@@ -0,0 +1,32 @@
+package com.example.demo.migration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Carts created before {@code cart.version} existed have a null version, which Spring Data
+ * would treat as a new entity. Backfill them with the initial version.
+ */
+@Component
+@Order(MigrationOrder.CART_VERSIONS)
+public class CartVersionMigration implements ApplicationRunner {
+
+	private final static Logger logger = LoggerFactory.getLogger(CartVersionMigration.class);
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Override
+	public void run(ApplicationArguments args) {
+		int carts = jdbcTemplate.update("update cart set version = 0 where version is null");
+		if (carts > 0) {
+			logger.info("CartVersionMigration::run - Initialized version on {} carts", carts);
+		}
+	}
+}
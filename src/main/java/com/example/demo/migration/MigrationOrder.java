@@ -0,0 +1,20 @@
+package com.example.demo.migration;
+
+import org.springframework.core.Ordered;
+
+/**
+ * The order the migration runners run in at startup. Sequences come first because the other
+ * migrations draw ids from them, and the rollup rebuild comes last because it reads the
+ * {@code order_line} rows that {@link OrderLineMigration} copies from the legacy table.
+ */
+final class MigrationOrder {
+
+	static final int SEQUENCES = Ordered.HIGHEST_PRECEDENCE;
+	static final int CART_LINES = 100;
+	static final int CART_VERSIONS = 200;
+	static final int ORDER_LINES = 300;
+	static final int SALES_ROLLUPS = 400;
+
+	private MigrationOrder() {
+	}
+}
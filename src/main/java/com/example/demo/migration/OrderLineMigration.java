@@ -0,0 +1,55 @@
+package com.example.demo.migration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Copies the legacy {@code user_order_items} join table, which held one row per unit and
+ * pointed at live items, into {@code order_line} snapshots, then drops it. The price paid was
+ * never stored, so migrated lines take the catalog price at migration time. Lines for items that
+ * no longer exist are kept under a placeholder name with a zero price. Does nothing once
+ * migrated.
+ */
+@Component
+@Order(MigrationOrder.ORDER_LINES)
+public class OrderLineMigration implements ApplicationRunner {
+
+	private final static Logger logger = LoggerFactory.getLogger(OrderLineMigration.class);
+
+	static final String LEGACY_TABLE = "user_order_items";
+	static final String DELETED_ITEM_NAME = "Deleted item";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Override
+	@Transactional
+	public void run(ApplicationArguments args) {
+		if (!Tables.exists(jdbcTemplate, LEGACY_TABLE)) {
+			return;
+		}
+		Integer missing = jdbcTemplate.queryForObject("select count(*) from (select oi.user_order_id, oi.items_id "
+				+ "from user_order_items oi "
+				+ "where not exists (select 1 from item i where i.id = oi.items_id) "
+				+ "and not exists (select 1 from order_line ol where ol.order_id = oi.user_order_id) "
+				+ "group by oi.user_order_id, oi.items_id) missing", Integer.class);
+		int lines = jdbcTemplate.update("insert into order_line (id, order_id, item_id, item_name, unit_price, quantity) "
+				+ "select next value for order_line_seq, oi.user_order_id, oi.items_id, coalesce(i.name, ?), coalesce(i.price, 0), count(*) "
+				+ "from user_order_items oi left join item i on i.id = oi.items_id "
+				+ "where not exists (select 1 from order_line ol where ol.order_id = oi.user_order_id) "
+				+ "group by oi.user_order_id, oi.items_id, i.name, i.price", DELETED_ITEM_NAME);
+		if (missing != null && missing > 0) {
+			logger.warn("OrderLineMigration::run - {} migrated order lines point at deleted items and were stored as "
+					+ "\"{}\" with a zero price", missing, DELETED_ITEM_NAME);
+		}
+		jdbcTemplate.execute("drop table user_order_items");
+		logger.info("OrderLineMigration::run - Migrated {} order lines from {}", lines, LEGACY_TABLE);
+	}
+}
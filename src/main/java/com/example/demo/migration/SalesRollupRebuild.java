@@ -0,0 +1,47 @@
+package com.example.demo.migration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.services.SalesRollupService;
+
+/**
+ * Recomputes the sales rollups from raw orders when the application is started with
+ * {@code --rebuild-sales-rollups}, and on first start after the rollup tables were added.
+ * Runs after {@link OrderLineMigration}, so legacy order lines are counted.
+ */
+@Component
+@Order(MigrationOrder.SALES_ROLLUPS)
+public class SalesRollupRebuild implements ApplicationRunner {
+
+	private final static Logger logger = LoggerFactory.getLogger(SalesRollupRebuild.class);
+
+	static final String REBUILD_OPTION = "rebuild-sales-rollups";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private SalesRollupService salesRollupService;
+
+	@Override
+	public void run(ApplicationArguments args) {
+		if (args.containsOption(REBUILD_OPTION)) {
+			logger.info("SalesRollupRebuild::run - Rebuild requested with --{}", REBUILD_OPTION);
+			salesRollupService.rebuild();
+		} else if (isEmpty("user_sales") && !isEmpty("user_order")) {
+			logger.info("SalesRollupRebuild::run - Rollups are empty but orders exist, rebuilding");
+			salesRollupService.rebuild();
+		}
+	}
+
+	private boolean isEmpty(String table) {
+		return jdbcTemplate.queryForList("select 1 from " + table + " limit 1").isEmpty();
+	}
+}
@@ -0,0 +1,63 @@
+package com.example.demo.migration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.model.persistence.Sequences;
+
+/**
+ * Moves each id sequence past the largest id already in its table, so rows written while the
+ * tables used identity columns, or seeded by {@code data.sql}, are never handed out again.
+ * Runs before the other migrations, which draw ids from these sequences. Does nothing once the
+ * sequences are ahead.
+ */
+@Component
+@Order(MigrationOrder.SEQUENCES)
+public class SequenceMigration implements ApplicationRunner {
+
+	private final static Logger logger = LoggerFactory.getLogger(SequenceMigration.class);
+
+	static final Map<String, String> TABLES = new LinkedHashMap<>();
+
+	static {
+		TABLES.put(Sequences.CART, "cart");
+		TABLES.put(Sequences.CART_LINE, "cart_line");
+		TABLES.put(Sequences.ITEM, "item");
+		TABLES.put(Sequences.ORDER_LINE, "order_line");
+		TABLES.put(Sequences.USER, "user");
+		TABLES.put(Sequences.USER_ORDER, "user_order");
+	}
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Override
+	@Transactional
+	public void run(ApplicationArguments args) {
+		TABLES.forEach(this::advance);
+	}
+
+	private void advance(String sequence, String table) {
+		Long maxId = jdbcTemplate.queryForObject("select max(id) from " + table, Long.class);
+		if (maxId == null) {
+			return;
+		}
+		long next = jdbcTemplate.queryForObject("select current_value + increment from information_schema.sequences "
+				+ "where upper(sequence_name) = upper(?)", Long.class, sequence);
+		if (next > maxId) {
+			return;
+		}
+		jdbcTemplate.execute("alter sequence " + sequence + " restart with " + (maxId + 1));
+		logger.info("SequenceMigration::advance - Restarted {} at {}, past the ids in {}", sequence, maxId + 1, table);
+	}
+}
@@ -0,0 +1,28 @@
+package com.example.demo.migration;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.Locale;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+final class Tables {
+
+	private Tables() {
+	}
+
+	static boolean exists(JdbcTemplate jdbcTemplate, String table) {
+		return jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+			DatabaseMetaData metaData = connection.getMetaData();
+			for (String name : new String[] {table, table.toUpperCase(Locale.ROOT)}) {
+				try (ResultSet tables = metaData.getTables(null, null, name, new String[] {"TABLE"})) {
+					if (tables.next()) {
+						return true;
+					}
+				}
+			}
+			return false;
+		});
+	}
+}
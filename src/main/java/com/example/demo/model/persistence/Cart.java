@@ -1,21 +1,24 @@
 package com.example.demo.model.persistence;
 
-import java.math.BigDecimal;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 
+import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
-import javax.persistence.ManyToMany;
 import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Transient;
+import javax.persistence.Version;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 @Entity
@@ -23,15 +26,19 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 public class Cart {
 	
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = Sequences.CART)
+	@SequenceGenerator(name = Sequences.CART, sequenceName = Sequences.CART, allocationSize = Sequences.ALLOCATION_SIZE)
 	@JsonProperty
 	@Column
 	private Long id;
 	
-	@ManyToMany
+	@OneToMany(mappedBy = "cart", cascade = CascadeType.ALL, orphanRemoval = true)
 	@JsonProperty
-	@Column
-    private List<Item> items;
+    private List<CartLine> items;
+	
+	@Transient
+	@JsonIgnore
+	private Map<Long, CartLine> linesByItemId;
 	
 	@OneToOne(mappedBy = "cart")
 	@JsonProperty
@@ -39,16 +46,28 @@ public class Cart {
 	
 	@Column
 	@JsonProperty
-	private BigDecimal total;
+	private Money total;
+	
+	@Version
+	@JsonIgnore
+	private Long version;
 	
-	public BigDecimal getTotal() {
+	public Money getTotal() {
 		return total;
 	}
 
-	public void setTotal(BigDecimal total) {
+	public void setTotal(Money total) {
 		this.total = total;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
 	public User getUser() {
 		return user;
 	}
@@ -65,33 +84,73 @@ public class Cart {
 		this.id = id;
 	}
 
-	public List<Item> getItems() {
+	public List<CartLine> getItems() {
 		return items;
 	}
 
-	public void setItems(List<Item> items) {
+	public void setItems(List<CartLine> items) {
 		this.items = items;
+		this.linesByItemId = null;
 	}
 	
 	public void addItem(Item item) {
-		if(items == null) {
-			items = new ArrayList<>();
+		addItem(item, 1);
+	}
+	
+	public void addItem(Item item, int quantity) {
+		if(quantity <= 0) {
+			return;
+		}
+		CartLine line = lines().get(item.getId());
+		if(line == null) {
+			line = new CartLine(this, item, 0);
+			items.add(line);
+			linesByItemId.put(item.getId(), line);
 		}
-		items.add(item);
+		line.setQuantity(line.getQuantity() + quantity);
 		if(total == null) {
-			total = new BigDecimal(0);
+			total = Money.ZERO;
 		}
-		total = total.add(item.getPrice());
+		total = total.plus(item.getPrice(), quantity);
 	}
 	
 	public void removeItem(Item item) {
+		removeItem(item, 1);
+	}
+	
+	public void removeItem(Item item, int quantity) {
+		CartLine line = lines().get(item.getId());
+		if(line == null || quantity <= 0) {
+			return;
+		}
+		int removed = Math.min(quantity, line.getQuantity());
+		if(removed == line.getQuantity()) {
+			items.remove(line);
+			linesByItemId.remove(item.getId());
+		} else {
+			line.setQuantity(line.getQuantity() - removed);
+		}
+		if(total == null) {
+			total = Money.ZERO;
+		}
+		total = total.minus(item.getPrice(), removed);
+	}
+	
+	public int getQuantity(Item item) {
+		CartLine line = lines().get(item.getId());
+		return line == null ? 0 : line.getQuantity();
+	}
+	
+	private Map<Long, CartLine> lines() {
 		if(items == null) {
 			items = new ArrayList<>();
 		}
-		items.remove(item);
-		if(total == null) {
-			total = new BigDecimal(0);
+		if(linesByItemId == null) {
+			linesByItemId = new HashMap<>();
+			for(CartLine line : items) {
+				linesByItemId.put(line.getItem().getId(), line);
+			}
 		}
-		total = total.subtract(item.getPrice());
+		return linesByItemId;
 	}
 }
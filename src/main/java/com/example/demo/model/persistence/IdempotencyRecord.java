@@ -0,0 +1,88 @@
+package com.example.demo.model.persistence;
+
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+/**
+ * Remembers which order an {@code Idempotency-Key} produced for a user. The unique key also
+ * stops two concurrent requests with the same key from both creating an order.
+ */
+@Entity
+@Table(name = "idempotency_key",
+		uniqueConstraints = @UniqueConstraint(columnNames = {"username", "idempotency_key"}),
+		indexes = @Index(name = "idx_idempotency_key_created_at", columnList = "created_at"))
+public class IdempotencyRecord {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Column(nullable = false)
+	private String username;
+
+	@Column(name = "idempotency_key", nullable = false)
+	private String key;
+
+	@Column(name = "order_id")
+	private Long orderId;
+
+	@Column(name = "created_at", nullable = false)
+	private Instant createdAt;
+
+	public IdempotencyRecord() {
+	}
+
+	public IdempotencyRecord(String username, String key, Instant createdAt) {
+		this.username = username;
+		this.key = key;
+		this.createdAt = createdAt;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getUsername() {
+		return username;
+	}
+
+	public void setUsername(String username) {
+		this.username = username;
+	}
+
+	public String getKey() {
+		return key;
+	}
+
+	public void setKey(String key) {
+		this.key = key;
+	}
+
+	public Long getOrderId() {
+		return orderId;
+	}
+
+	public void setOrderId(Long orderId) {
+		this.orderId = orderId;
+	}
+
+	public Instant getCreatedAt() {
+		return createdAt;
+	}
+
+	public void setCreatedAt(Instant createdAt) {
+		this.createdAt = createdAt;
+	}
+}
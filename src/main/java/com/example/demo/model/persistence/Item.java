@@ -1,25 +1,27 @@
 package com.example.demo.model.persistence;
 
-import java.math.BigDecimal;
-
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 @Entity
+@EntityListeners(ItemEntityListener.class)
 @Table(name = "item")
 public class Item {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = Sequences.ITEM)
+	@SequenceGenerator(name = Sequences.ITEM, sequenceName = Sequences.ITEM, allocationSize = Sequences.ALLOCATION_SIZE)
 	@JsonProperty
 	private Long id;
 	
@@ -29,7 +31,7 @@ public class Item {
 	
 	@Column(nullable = false)
 	@JsonProperty
-	private BigDecimal price;
+	private Money price;
 	
 	@Column(nullable = false)
 	@JsonProperty
@@ -76,11 +78,11 @@ public class Item {
 		this.name = name;
 	}
 
-	public BigDecimal getPrice() {
+	public Money getPrice() {
 		return price;
 	}
 
-	public void setPrice(BigDecimal price) {
+	public void setPrice(Money price) {
 		this.price = price;
 	}
 
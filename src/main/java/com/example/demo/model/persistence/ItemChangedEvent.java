@@ -0,0 +1,20 @@
+package com.example.demo.model.persistence;
+
+public class ItemChangedEvent {
+
+	private final Item item;
+	private final boolean removed;
+
+	public ItemChangedEvent(Item item, boolean removed) {
+		this.item = item;
+		this.removed = removed;
+	}
+
+	public Item getItem() {
+		return item;
+	}
+
+	public boolean isRemoved() {
+		return removed;
+	}
+}
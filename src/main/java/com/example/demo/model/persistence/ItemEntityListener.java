@@ -0,0 +1,33 @@
+package com.example.demo.model.persistence;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes an {@link ItemChangedEvent} whenever Hibernate writes an {@link Item},
+ * so in-memory catalog structures can be kept in step with the table.
+ */
+@Component
+public class ItemEntityListener {
+
+	private final ApplicationEventPublisher publisher;
+
+	public ItemEntityListener(ApplicationEventPublisher publisher) {
+		this.publisher = publisher;
+	}
+
+	@PostPersist
+	@PostUpdate
+	public void onSave(Item item) {
+		publisher.publishEvent(new ItemChangedEvent(item, false));
+	}
+
+	@PostRemove
+	public void onRemove(Item item) {
+		publisher.publishEvent(new ItemChangedEvent(item, true));
+	}
+}
@@ -0,0 +1,44 @@
+package com.example.demo.model.persistence;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Units sold and revenue per item, kept current by {@code SalesRollupService}.
+ */
+@Entity
+@Table(name = "item_sales", indexes = {
+		@Index(name = "idx_item_sales_units", columnList = "units"),
+		@Index(name = "idx_item_sales_revenue", columnList = "revenue")})
+public class ItemSales {
+
+	@Id
+	@Column(name = "item_id")
+	@JsonProperty
+	private Long itemId;
+
+	@Column(nullable = false)
+	@JsonProperty
+	private long units;
+
+	@Column(nullable = false)
+	@JsonProperty
+	private Money revenue;
+
+	public Long getItemId() {
+		return itemId;
+	}
+
+	public long getUnits() {
+		return units;
+	}
+
+	public Money getRevenue() {
+		return revenue;
+	}
+}
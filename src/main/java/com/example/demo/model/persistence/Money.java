@@ -0,0 +1,84 @@
+package com.example.demo.model.persistence;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * An amount held as a count of cents. Arithmetic stays in {@code long}; conversion to and
+ * from {@link BigDecimal} only happens in JSON ({@link #toBigDecimal()}) and in the
+ * database ({@link MoneyConverter}).
+ */
+public final class Money implements Comparable<Money> {
+
+	public static final Money ZERO = new Money(0);
+
+	private static final int SCALE = 2;
+
+	private final long cents;
+
+	private Money(long cents) {
+		this.cents = cents;
+	}
+
+	public static Money ofCents(long cents) {
+		return cents == 0 ? ZERO : new Money(cents);
+	}
+
+	@JsonCreator
+	public static Money of(BigDecimal amount) {
+		if(amount == null) {
+			return null;
+		}
+		return ofCents(amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+	}
+
+	public long getCents() {
+		return cents;
+	}
+
+	public Money plus(Money other) {
+		return ofCents(Math.addExact(cents, other.cents));
+	}
+
+	/** Adds {@code quantity} units of {@code unitPrice} without an intermediate value. */
+	public Money plus(Money unitPrice, int quantity) {
+		return ofCents(Math.addExact(cents, Math.multiplyExact(unitPrice.cents, (long) quantity)));
+	}
+
+	/** Subtracts {@code quantity} units of {@code unitPrice} without an intermediate value. */
+	public Money minus(Money unitPrice, int quantity) {
+		return ofCents(Math.subtractExact(cents, Math.multiplyExact(unitPrice.cents, (long) quantity)));
+	}
+
+	public Money times(int quantity) {
+		return ofCents(Math.multiplyExact(cents, (long) quantity));
+	}
+
+	@JsonValue
+	public BigDecimal toBigDecimal() {
+		return BigDecimal.valueOf(cents, SCALE);
+	}
+
+	@Override
+	public int compareTo(Money other) {
+		return Long.compare(cents, other.cents);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof Money && ((Money) obj).cents == cents;
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(cents);
+	}
+
+	@Override
+	public String toString() {
+		return toBigDecimal().toPlainString();
+	}
+}
@@ -0,0 +1,94 @@
+package com.example.demo.model.persistence;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+
+import org.hibernate.annotations.Immutable;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * What was ordered, copied from the catalog when the order was placed. Holds the item id as a
+ * plain column rather than a reference, so reading history never joins or locks {@code item}.
+ */
+@Entity
+@Immutable
+@Table(name = "order_line")
+public class OrderLine {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = Sequences.ORDER_LINE)
+	@SequenceGenerator(name = Sequences.ORDER_LINE, sequenceName = Sequences.ORDER_LINE, allocationSize = Sequences.ALLOCATION_SIZE)
+	@JsonIgnore
+	private Long id;
+
+	@ManyToOne(fetch = FetchType.LAZY, optional = false)
+	@JoinColumn(name = "order_id", nullable = false, updatable = false)
+	@JsonIgnore
+	private UserOrder order;
+
+	@Column(name = "item_id", nullable = false, updatable = false)
+	@JsonProperty
+	private long itemId;
+
+	@Column(name = "item_name", nullable = false, updatable = false)
+	@JsonProperty
+	private String name;
+
+	@Column(name = "unit_price", nullable = false, updatable = false)
+	@JsonProperty
+	private Money unitPrice;
+
+	@Column(nullable = false, updatable = false)
+	@JsonProperty
+	private int quantity;
+
+	protected OrderLine() {
+	}
+
+	public OrderLine(UserOrder order, long itemId, String name, Money unitPrice, int quantity) {
+		this.order = order;
+		this.itemId = itemId;
+		this.name = name;
+		this.unitPrice = unitPrice;
+		this.quantity = quantity;
+	}
+
+	public static OrderLine snapshot(UserOrder order, CartLine line) {
+		Item item = line.getItem();
+		return new OrderLine(order, item.getId(), item.getName(), item.getPrice(), line.getQuantity());
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public UserOrder getOrder() {
+		return order;
+	}
+
+	public long getItemId() {
+		return itemId;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public Money getUnitPrice() {
+		return unitPrice;
+	}
+
+	public int getQuantity() {
+		return quantity;
+	}
+}
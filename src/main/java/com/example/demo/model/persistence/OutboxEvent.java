@@ -0,0 +1,77 @@
+package com.example.demo.model.persistence;
+
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Lob;
+import javax.persistence.Table;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+/**
+ * An event written in the same transaction as the change it describes, for the outbox
+ * dispatcher to deliver afterwards. {@code payload} is JSON.
+ */
+@Entity
+@Table(name = "outbox_event")
+public class OutboxEvent {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@JsonProperty
+	private Long id;
+
+	@Column(name = "event_type", nullable = false)
+	@JsonProperty
+	private String type;
+
+	@Column(name = "aggregate_id", nullable = false)
+	@JsonProperty
+	private long aggregateId;
+
+	@Lob
+	@Column(nullable = false)
+	@JsonProperty
+	@JsonRawValue
+	private String payload;
+
+	@Column(name = "created_at", nullable = false)
+	@JsonProperty
+	private Instant createdAt;
+
+	public OutboxEvent() {
+	}
+
+	public OutboxEvent(Long id, String type, long aggregateId, String payload, Instant createdAt) {
+		this.id = id;
+		this.type = type;
+		this.aggregateId = aggregateId;
+		this.payload = payload;
+		this.createdAt = createdAt;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	public long getAggregateId() {
+		return aggregateId;
+	}
+
+	public String getPayload() {
+		return payload;
+	}
+
+	public Instant getCreatedAt() {
+		return createdAt;
+	}
+}
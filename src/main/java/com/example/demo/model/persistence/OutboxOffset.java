@@ -0,0 +1,29 @@
+package com.example.demo.model.persistence;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * Id of the last outbox event a sink has accepted.
+ */
+@Entity
+@Table(name = "outbox_offset")
+public class OutboxOffset {
+
+	@Id
+	@Column(name = "sink")
+	private String sink;
+
+	@Column(name = "last_event_id", nullable = false)
+	private long lastEventId;
+
+	public String getSink() {
+		return sink;
+	}
+
+	public long getLastEventId() {
+		return lastEventId;
+	}
+}
@@ -0,0 +1,51 @@
+package com.example.demo.model.persistence;
+
+import java.time.LocalDate;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Orders, units and revenue per UTC day, kept current by {@code SalesRollupService}.
+ */
+@Entity
+@Table(name = "sales_bucket")
+public class SalesBucket {
+
+	@Id
+	@Column(name = "bucket_date")
+	@JsonProperty
+	private LocalDate date;
+
+	@Column(nullable = false)
+	@JsonProperty
+	private long orders;
+
+	@Column(nullable = false)
+	@JsonProperty
+	private long units;
+
+	@Column(nullable = false)
+	@JsonProperty
+	private Money revenue;
+
+	public LocalDate getDate() {
+		return date;
+	}
+
+	public long getOrders() {
+		return orders;
+	}
+
+	public long getUnits() {
+		return units;
+	}
+
+	public Money getRevenue() {
+		return revenue;
+	}
+}
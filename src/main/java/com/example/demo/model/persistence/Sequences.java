@@ -0,0 +1,44 @@
+package com.example.demo.model.persistence;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Id sequences shared by Hibernate and the JDBC writers. Hibernate runs them with the pooled-lo
+ * optimizer: each value a sequence hands out is the first of {@link #ALLOCATION_SIZE} ids owned
+ * by whoever fetched it. {@link #nextIds} follows the same rule, so rows written with JDBC never
+ * collide with entities saved through JPA.
+ */
+public final class Sequences {
+
+	public static final int ALLOCATION_SIZE = 50;
+
+	public static final String CART = "cart_seq";
+	public static final String CART_LINE = "cart_line_seq";
+	public static final String ITEM = "item_seq";
+	public static final String ORDER_LINE = "order_line_seq";
+	public static final String USER = "user_seq";
+	public static final String USER_ORDER = "user_order_seq";
+
+	private Sequences() {
+	}
+
+	/** Reserves {@code count} ids from {@code sequence}, fetching one block per {@link #ALLOCATION_SIZE} ids. */
+	public static List<Long> nextIds(JdbcTemplate jdbcTemplate, String sequence, int count) {
+		List<Long> ids = new ArrayList<>(count);
+		if (count == 0) {
+			return ids;
+		}
+		int blocks = (count + ALLOCATION_SIZE - 1) / ALLOCATION_SIZE;
+		List<Long> starts = jdbcTemplate.queryForList(
+				"select next value for " + sequence + " from system_range(1, ?)", Long.class, blocks);
+		for (long start : starts) {
+			for (int i = 0; i < ALLOCATION_SIZE && ids.size() < count; i++) {
+				ids.add(start + i);
+			}
+		}
+		return ids;
+	}
+}
@@ -1,19 +1,20 @@
 package com.example.demo.model.persistence;
 
-import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
-import javax.persistence.JoinTable;
-import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
+import javax.persistence.OneToMany;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -23,24 +24,28 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 public class UserOrder {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = Sequences.USER_ORDER)
+	@SequenceGenerator(name = Sequences.USER_ORDER, sequenceName = Sequences.USER_ORDER, allocationSize = Sequences.ALLOCATION_SIZE)
 	@JsonProperty
 	@Column
 	private Long id;
 	
-	@ManyToMany(cascade = CascadeType.ALL)
+	@OneToMany(mappedBy = "order", cascade = CascadeType.ALL)
 	@JsonProperty
-	@Column
-    private List<Item> items;
+    private List<OrderLine> lines;
 	
-	@ManyToOne
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name="user_id", nullable = false, referencedColumnName = "id")
 	@JsonProperty
     private User user;
 	
 	@JsonProperty
 	@Column
-	private BigDecimal total;
+	private Money total;
+	
+	@JsonProperty
+	@Column(name = "placed_at")
+	private Instant placedAt;
 
 	public Long getId() {
 		return id;
@@ -50,12 +55,12 @@ public class UserOrder {
 		this.id = id;
 	}
 
-	public List<Item> getItems() {
-		return items;
+	public List<OrderLine> getLines() {
+		return lines;
 	}
 
-	public void setItems(List<Item> items) {
-		this.items = items;
+	public void setLines(List<OrderLine> lines) {
+		this.lines = lines;
 	}
 
 	public User getUser() {
@@ -66,19 +71,30 @@ public class UserOrder {
 		this.user = user;
 	}
 	
-	public BigDecimal getTotal() {
+	public Money getTotal() {
 		return total;
 	}
 
-	public void setTotal(BigDecimal total) {
+	public void setTotal(Money total) {
 		this.total = total;
 	}
 
+	public Instant getPlacedAt() {
+		return placedAt;
+	}
+
+	public void setPlacedAt(Instant placedAt) {
+		this.placedAt = placedAt;
+	}
+
 	public static UserOrder createFromCart(Cart cart) {
 		UserOrder order = new UserOrder();
-		order.setItems(cart.getItems().stream().collect(Collectors.toList()));
+		order.setLines(cart.getItems().stream()
+				.map(line -> OrderLine.snapshot(order, line))
+				.collect(Collectors.toList()));
 		order.setTotal(cart.getTotal());
 		order.setUser(cart.getUser());
+		order.setPlacedAt(Instant.now());
 		return order;
 	}
 	
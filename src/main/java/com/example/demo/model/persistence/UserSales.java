@@ -0,0 +1,41 @@
+package com.example.demo.model.persistence;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Orders placed and amount spent per user, kept current by {@code SalesRollupService}.
+ */
+@Entity
+@Table(name = "user_sales")
+public class UserSales {
+
+	@Id
+	@Column(name = "user_id")
+	@JsonProperty
+	private Long userId;
+
+	@Column(nullable = false)
+	@JsonProperty
+	private long orders;
+
+	@Column(nullable = false)
+	@JsonProperty
+	private Money revenue;
+
+	public Long getUserId() {
+		return userId;
+	}
+
+	public long getOrders() {
+		return orders;
+	}
+
+	public Money getRevenue() {
+		return revenue;
+	}
+}
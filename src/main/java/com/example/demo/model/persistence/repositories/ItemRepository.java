@@ -1,14 +1,28 @@
 package com.example.demo.model.persistence.repositories;
 
 import java.util.List;
+import java.util.stream.Stream;
 
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import com.example.demo.model.persistence.Item;
 import org.springframework.stereotype.Repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
 	List<Item> findByName(String name);
 
+	List<Item> findByIdGreaterThanOrderByIdAsc(Long after, Pageable pageable);
+
+	@Query("select i from Item i order by i.id")
+	@QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+	Stream<Item> streamAllOrderById();
+
 }
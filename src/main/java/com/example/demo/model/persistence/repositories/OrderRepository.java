@@ -1,14 +1,35 @@
 package com.example.demo.model.persistence.repositories;
 
+import java.util.Collection;
 import java.util.List;
 
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.UserOrder;
 import org.springframework.stereotype.Repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_PASS_DISTINCT_THROUGH;
+
 @Repository
 public interface OrderRepository extends JpaRepository<UserOrder, Long> {
 	List<UserOrder> findByUser(User user);
+
+	/** Ids of the user's orders older than {@code before}, newest first. */
+	@Query("select o.id from UserOrder o where o.user = :user and o.id < :before order by o.id desc")
+	List<Long> findIdsByUserBefore(@Param("user") User user, @Param("before") long before, Pageable pageable);
+
+	/**
+	 * Loads the orders with their line snapshots in one query. Distinct only de-duplicates
+	 * the roots in memory; the SQL does not need it.
+	 */
+	@Query("select distinct o from UserOrder o left join fetch o.lines where o.id in :ids order by o.id desc")
+	@QueryHints(@QueryHint(name = HINT_PASS_DISTINCT_THROUGH, value = "false"))
+	List<UserOrder> findWithLinesByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,14 @@
+package com.example.demo.model.persistence.repositories;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.example.demo.model.persistence.SalesBucket;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SalesBucketRepository extends JpaRepository<SalesBucket, LocalDate> {
+	List<SalesBucket> findByDateBetweenOrderByDateAsc(LocalDate from, LocalDate to);
+}
@@ -1,6 +1,7 @@
 package com.example.demo.model.persistence.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import com.example.demo.model.persistence.User;
 import org.springframework.stereotype.Repository;
@@ -8,4 +9,19 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 	User findByUsername(String username);
+
+	/** What a login needs, read from the user row alone without loading the cart. */
+	@Query("select u.id as id, u.username as username, u.password as password, u.cart.id as cartId "
+			+ "from User u where u.username = ?1")
+	Credentials findCredentialsByUsername(String username);
+
+	interface Credentials {
+		Long getId();
+
+		String getUsername();
+
+		String getPassword();
+
+		Long getCartId();
+	}
 }
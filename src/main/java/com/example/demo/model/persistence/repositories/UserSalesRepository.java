@@ -0,0 +1,10 @@
+package com.example.demo.model.persistence.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.example.demo.model.persistence.UserSales;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserSalesRepository extends JpaRepository<UserSales, Long> {
+}
@@ -0,0 +1,6 @@
+package com.example.demo.model.requests;
+
+public enum CartAction {
+	ADD,
+	REMOVE
+}
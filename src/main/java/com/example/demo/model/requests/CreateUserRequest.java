@@ -20,4 +20,8 @@ public class CreateUserRequest {
 
 	@JsonProperty
 	private String confirmPassword;
+
+	public static boolean isPasswordValid(String password) {
+		return password != null && password.length() > 5;
+	}
 }
@@ -12,6 +12,9 @@ public class ModifyCartRequest {
 	
 	@JsonProperty
 	private int quantity;
+	
+	@JsonProperty
+	private CartAction action;
 
 	public String getUsername() {
 		return username;
@@ -36,6 +39,14 @@ public class ModifyCartRequest {
 	public void setQuantity(int quantity) {
 		this.quantity = quantity;
 	}
+
+	public CartAction getAction() {
+		return action;
+	}
+
+	public void setAction(CartAction action) {
+		this.action = action;
+	}
 	
 	
 
@@ -0,0 +1,53 @@
+package com.example.demo.model.responses;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.CartLine;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Flat view of a cart. Built from the lines and total only; the owning user is never touched.
+ */
+public class CartResponse {
+
+	@JsonProperty
+	private final Long id;
+
+	@JsonProperty
+	private final List<LineResponse> lines;
+
+	@JsonProperty
+	private final BigDecimal total;
+
+	public CartResponse(Long id, List<LineResponse> lines, BigDecimal total) {
+		this.id = id;
+		this.lines = lines;
+		this.total = total;
+	}
+
+	public static CartResponse from(Cart cart) {
+		List<LineResponse> lines = new ArrayList<>();
+		if(cart.getItems() != null) {
+			for(CartLine line : cart.getItems()) {
+				lines.add(LineResponse.of(line.getItem(), line.getQuantity()));
+			}
+		}
+		return new CartResponse(cart.getId(), lines,
+				cart.getTotal() == null ? BigDecimal.ZERO : cart.getTotal().toBigDecimal());
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public List<LineResponse> getLines() {
+		return lines;
+	}
+
+	public BigDecimal getTotal() {
+		return total;
+	}
+}
@@ -0,0 +1,25 @@
+package com.example.demo.model.responses;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class ItemSuggestion {
+
+	@JsonProperty
+	private final long id;
+
+	@JsonProperty
+	private final String name;
+
+	public ItemSuggestion(long id, String name) {
+		this.id = id;
+		this.name = name;
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	public String getName() {
+		return name;
+	}
+}
@@ -0,0 +1,48 @@
+package com.example.demo.model.responses;
+
+import java.math.BigDecimal;
+
+import com.example.demo.model.persistence.Item;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class LineResponse {
+
+	@JsonProperty
+	private final long itemId;
+
+	@JsonProperty
+	private final String name;
+
+	@JsonProperty
+	private final BigDecimal price;
+
+	@JsonProperty
+	private final int quantity;
+
+	public LineResponse(long itemId, String name, BigDecimal price, int quantity) {
+		this.itemId = itemId;
+		this.name = name;
+		this.price = price;
+		this.quantity = quantity;
+	}
+
+	public static LineResponse of(Item item, int quantity) {
+		return new LineResponse(item.getId(), item.getName(), item.getPrice().toBigDecimal(), quantity);
+	}
+
+	public long getItemId() {
+		return itemId;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public BigDecimal getPrice() {
+		return price;
+	}
+
+	public int getQuantity() {
+		return quantity;
+	}
+}
@@ -0,0 +1,54 @@
+package com.example.demo.model.responses;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.demo.model.persistence.OrderLine;
+import com.example.demo.model.persistence.UserOrder;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Flat view of an order, read from its line snapshots; the owning user is never touched.
+ */
+public class OrderResponse {
+
+	@JsonProperty
+	private final Long id;
+
+	@JsonProperty
+	private final List<LineResponse> lines;
+
+	@JsonProperty
+	private final BigDecimal total;
+
+	public OrderResponse(Long id, List<LineResponse> lines, BigDecimal total) {
+		this.id = id;
+		this.lines = lines;
+		this.total = total;
+	}
+
+	public static OrderResponse from(UserOrder order) {
+		List<LineResponse> lines = new ArrayList<>();
+		if(order.getLines() != null) {
+			for(OrderLine line : order.getLines()) {
+				lines.add(new LineResponse(line.getItemId(), line.getName(),
+						line.getUnitPrice().toBigDecimal(), line.getQuantity()));
+			}
+		}
+		return new OrderResponse(order.getId(), lines,
+				order.getTotal() == null ? null : order.getTotal().toBigDecimal());
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public List<LineResponse> getLines() {
+		return lines;
+	}
+
+	public BigDecimal getTotal() {
+		return total;
+	}
+}
@@ -0,0 +1,55 @@
+package com.example.demo.model.responses;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * State of an order accepted by the asynchronous submit endpoint. {@code orderId} is set
+ * once the order has been written.
+ */
+public class OrderSubmission {
+
+	public enum Status {
+		QUEUED, COMPLETED, FAILED
+	}
+
+	@JsonProperty
+	private final String reference;
+
+	@JsonProperty
+	private final Status status;
+
+	@JsonProperty
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private final Long orderId;
+
+	public OrderSubmission(String reference, Status status, Long orderId) {
+		this.reference = reference;
+		this.status = status;
+		this.orderId = orderId;
+	}
+
+	public static OrderSubmission queued(String reference) {
+		return new OrderSubmission(reference, Status.QUEUED, null);
+	}
+
+	public static OrderSubmission completed(String reference, long orderId) {
+		return new OrderSubmission(reference, Status.COMPLETED, orderId);
+	}
+
+	public static OrderSubmission failed(String reference) {
+		return new OrderSubmission(reference, Status.FAILED, null);
+	}
+
+	public String getReference() {
+		return reference;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public Long getOrderId() {
+		return orderId;
+	}
+}
@@ -0,0 +1,118 @@
+package com.example.demo.model.responses;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Outcome of a bulk user import, one entry per input row in input order. Rows are numbered
+ * from 1, not counting a CSV header. {@code error} is set if the input could not be read to
+ * the end; rows before that point were still processed.
+ */
+public class UserImportReport {
+
+	public enum Status {
+		CREATED, INVALID, DUPLICATE
+	}
+
+	@JsonProperty
+	private int created;
+
+	@JsonProperty
+	private int rejected;
+
+	@JsonProperty
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private String error;
+
+	@JsonProperty
+	private final List<Row> rows = new ArrayList<>();
+
+	public void add(Row row) {
+		rows.add(row);
+		if(row.status == Status.CREATED) {
+			created++;
+		} else {
+			rejected++;
+		}
+	}
+
+	public void setError(String error) {
+		this.error = error;
+	}
+
+	public int getCreated() {
+		return created;
+	}
+
+	public int getRejected() {
+		return rejected;
+	}
+
+	public String getError() {
+		return error;
+	}
+
+	public List<Row> getRows() {
+		return Collections.unmodifiableList(rows);
+	}
+
+	public static class Row {
+
+		@JsonProperty
+		private final int row;
+
+		@JsonProperty
+		private final String username;
+
+		@JsonProperty
+		private final Status status;
+
+		@JsonProperty
+		@JsonInclude(JsonInclude.Include.NON_NULL)
+		private final Long id;
+
+		@JsonProperty
+		@JsonInclude(JsonInclude.Include.NON_NULL)
+		private final String message;
+
+		public Row(int row, String username, Status status, Long id, String message) {
+			this.row = row;
+			this.username = username;
+			this.status = status;
+			this.id = id;
+			this.message = message;
+		}
+
+		public static Row created(int row, String username, long id) {
+			return new Row(row, username, Status.CREATED, id, null);
+		}
+
+		public static Row rejected(int row, String username, Status status, String message) {
+			return new Row(row, username, status, null, message);
+		}
+
+		public int getRow() {
+			return row;
+		}
+
+		public String getUsername() {
+			return username;
+		}
+
+		public Status getStatus() {
+			return status;
+		}
+
+		public Long getId() {
+			return id;
+		}
+
+		public String getMessage() {
+			return message;
+		}
+	}
+}
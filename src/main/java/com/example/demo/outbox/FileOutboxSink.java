@@ -0,0 +1,55 @@
+package com.example.demo.outbox;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.model.persistence.OutboxEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Appends each event as one JSON line to {@code outbox.sink.file.path}, for local testing of
+ * downstream consumers. A batch is written and synced before its offset is saved.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.sink.file.enabled", havingValue = "true")
+public class FileOutboxSink implements OutboxSink {
+
+	private final Path path;
+	private final ObjectWriter writer;
+
+	public FileOutboxSink(@Value("${outbox.sink.file.path:outbox-events.jsonl}") String path, ObjectMapper objectMapper) {
+		this.path = Paths.get(path);
+		this.writer = objectMapper.writerFor(OutboxEvent.class);
+	}
+
+	@Override
+	public String getName() {
+		return "file";
+	}
+
+	@Override
+	public void publish(List<OutboxEvent> events) throws IOException {
+		StringBuilder lines = new StringBuilder();
+		for (OutboxEvent event : events) {
+			lines.append(writer.writeValueAsString(event)).append('\n');
+		}
+		if (path.getParent() != null) {
+			Files.createDirectories(path.getParent());
+		}
+		try (Writer out = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+				StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE, StandardOpenOption.SYNC)) {
+			out.write(lines.toString());
+		}
+	}
+}
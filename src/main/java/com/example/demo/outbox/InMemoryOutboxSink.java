@@ -0,0 +1,47 @@
+package com.example.demo.outbox;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.model.persistence.OutboxEvent;
+
+/**
+ * Keeps the most recent {@code outbox.sink.memory.capacity} events in memory, for tests and
+ * local inspection.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.sink.memory.enabled", havingValue = "true", matchIfMissing = true)
+public class InMemoryOutboxSink implements OutboxSink {
+
+	private final int capacity;
+	private final Deque<OutboxEvent> events = new ArrayDeque<>();
+
+	public InMemoryOutboxSink(@Value("${outbox.sink.memory.capacity:1000}") int capacity) {
+		this.capacity = capacity;
+	}
+
+	@Override
+	public String getName() {
+		return "memory";
+	}
+
+	@Override
+	public synchronized void publish(List<OutboxEvent> batch) {
+		for (OutboxEvent event : batch) {
+			if (events.size() == capacity) {
+				events.removeFirst();
+			}
+			events.addLast(event);
+		}
+	}
+
+	public synchronized List<OutboxEvent> getEvents() {
+		return new ArrayList<>(events);
+	}
+}
@@ -0,0 +1,284 @@
+package com.example.demo.outbox;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.model.persistence.OutboxEvent;
+
+/**
+ * Delivers {@code outbox_event} rows to every {@link OutboxSink} from one background thread.
+ * Each sink reads in id order from its own offset in {@code outbox_offset}, which only moves
+ * after the sink accepted a batch, so delivery is at least once and a failing sink does not
+ * hold up the others.
+ * <p>
+ * Ids are assigned at insert but become visible at commit, so a smaller id can appear after a
+ * larger one. A sink stops in front of a gap until the event behind it is
+ * {@code outbox.gap-timeout-ms} old; after that the gap is taken to be a rolled back insert.
+ * Events every sink has passed are deleted once older than {@code outbox.retention-seconds}.
+ * Offsets are not locked, so run one dispatcher per database.
+ */
+@Component
+public class OutboxDispatcher {
+
+	private final static Logger logger = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+	private static final String SELECT_AFTER = "select id, event_type, aggregate_id, payload, created_at from outbox_event "
+			+ "where id > ? order by id limit ?";
+	private static final long RATE_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+	private static final RowMapper<OutboxEvent> EVENT_MAPPER = (rs, rowNum) -> new OutboxEvent(rs.getLong("id"),
+			rs.getString("event_type"), rs.getLong("aggregate_id"), rs.getString("payload"),
+			rs.getTimestamp("created_at").toInstant());
+
+	private final JdbcTemplate jdbcTemplate;
+	private final List<SinkState> sinks;
+	private final long pollIntervalMillis;
+	private final int batchSize;
+	private final long gapTimeoutMillis;
+	private final long retentionSeconds;
+
+	private volatile boolean offsetsLoaded;
+	private ScheduledExecutorService scheduler;
+
+	@Autowired
+	public OutboxDispatcher(JdbcTemplate jdbcTemplate, ObjectProvider<OutboxSink> sinks,
+			@Value("${outbox.poll-interval-ms:500}") long pollIntervalMillis,
+			@Value("${outbox.batch-size:200}") int batchSize,
+			@Value("${outbox.gap-timeout-ms:5000}") long gapTimeoutMillis,
+			@Value("${outbox.retention-seconds:86400}") long retentionSeconds) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.sinks = sinks.orderedStream().map(SinkState::new).collect(Collectors.toList());
+		this.pollIntervalMillis = pollIntervalMillis;
+		this.batchSize = batchSize;
+		this.gapTimeoutMillis = gapTimeoutMillis;
+		this.retentionSeconds = retentionSeconds;
+	}
+
+	@PostConstruct
+	public void start() {
+		scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "outbox-dispatcher");
+			thread.setDaemon(true);
+			return thread;
+		});
+		scheduler.scheduleWithFixedDelay(this::dispatchQuietly, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/** Stops polling. Undelivered events stay in the table and go out after the next start. */
+	@PreDestroy
+	public void stop() throws InterruptedException {
+		scheduler.shutdown();
+		scheduler.awaitTermination(pollIntervalMillis * 2, TimeUnit.MILLISECONDS);
+	}
+
+	/** Delivers everything that is ready to every sink, then prunes delivered events. */
+	public synchronized void dispatch() {
+		if (sinks.isEmpty()) {
+			return;
+		}
+		if (!offsetsLoaded) {
+			loadOffsets();
+		}
+		long head = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from outbox_event", Long.class);
+		for (SinkState sink : sinks) {
+			deliver(sink);
+			sink.updateLag(head, oldestAfter(sink.offset));
+		}
+		prune();
+	}
+
+	public List<SinkStats> getStats() {
+		return sinks.stream().map(SinkState::stats).collect(Collectors.toList());
+	}
+
+	private void dispatchQuietly() {
+		try {
+			dispatch();
+		} catch (RuntimeException e) {
+			logger.error("OutboxDispatcher::dispatchQuietly - Dispatch failed, retrying on the next poll", e);
+		}
+	}
+
+	private void loadOffsets() {
+		for (SinkState sink : sinks) {
+			List<Long> offsets = jdbcTemplate.queryForList("select last_event_id from outbox_offset where sink = ?",
+					Long.class, sink.getName());
+			if (offsets.isEmpty()) {
+				jdbcTemplate.update("insert into outbox_offset (sink, last_event_id) values (?, 0)", sink.getName());
+				sink.offset = 0;
+			} else {
+				sink.offset = offsets.get(0);
+			}
+		}
+		offsetsLoaded = true;
+	}
+
+	private void deliver(SinkState sink) {
+		while (true) {
+			List<OutboxEvent> ready = ready(sink.offset,
+					jdbcTemplate.query(SELECT_AFTER, EVENT_MAPPER, sink.offset, batchSize));
+			if (ready.isEmpty()) {
+				return;
+			}
+			try {
+				sink.sink.publish(ready);
+			} catch (Exception e) {
+				sink.failures.increment();
+				logger.warn("OutboxDispatcher::deliver - Sink {} rejected {} events after {}, retrying on the next poll",
+						sink.getName(), ready.size(), sink.offset, e);
+				return;
+			}
+			long last = ready.get(ready.size() - 1).getId();
+			jdbcTemplate.update("update outbox_offset set last_event_id = ? where sink = ?", last, sink.getName());
+			sink.offset = last;
+			sink.delivered(ready.size());
+			if (ready.size() < batchSize) {
+				return;
+			}
+		}
+	}
+
+	/** The leading run of {@code events} with no gap that may still be filled by a later commit. */
+	private List<OutboxEvent> ready(long offset, List<OutboxEvent> events) {
+		Instant settled = Instant.now().minusMillis(gapTimeoutMillis);
+		List<OutboxEvent> ready = new ArrayList<>(events.size());
+		long expected = offset + 1;
+		for (OutboxEvent event : events) {
+			if (event.getId() != expected && event.getCreatedAt().isAfter(settled)) {
+				break;
+			}
+			ready.add(event);
+			expected = event.getId() + 1;
+		}
+		return ready;
+	}
+
+	private Instant oldestAfter(long offset) {
+		Timestamp oldest = jdbcTemplate.queryForObject("select min(created_at) from outbox_event where id > ?",
+				Timestamp.class, offset);
+		return oldest == null ? null : oldest.toInstant();
+	}
+
+	private void prune() {
+		long delivered = sinks.stream().mapToLong(sink -> sink.offset).min().getAsLong();
+		int pruned = jdbcTemplate.update("delete from outbox_event where id <= ? and created_at < ?", delivered,
+				Timestamp.from(Instant.now().minusSeconds(retentionSeconds)));
+		if (pruned > 0) {
+			logger.info("OutboxDispatcher::prune - Deleted {} delivered events", pruned);
+		}
+	}
+
+	private static final class SinkState {
+		private final OutboxSink sink;
+		private final LongAdder delivered = new LongAdder();
+		private final LongAdder failures = new LongAdder();
+		private volatile long offset;
+		private volatile long lagEvents;
+		private volatile long lagMillis;
+		private volatile double eventsPerSecond;
+		private long windowStart = System.nanoTime();
+		private long windowCount;
+
+		private SinkState(OutboxSink sink) {
+			this.sink = sink;
+		}
+
+		private String getName() {
+			return sink.getName();
+		}
+
+		private void delivered(int count) {
+			delivered.add(count);
+			windowCount += count;
+		}
+
+		private void updateLag(long head, Instant oldestUndelivered) {
+			lagEvents = Math.max(0, head - offset);
+			lagMillis = oldestUndelivered == null ? 0 : Math.max(0, Duration.between(oldestUndelivered, Instant.now()).toMillis());
+			long now = System.nanoTime();
+			if (now - windowStart >= RATE_WINDOW_NANOS) {
+				eventsPerSecond = windowCount * 1e9 / (now - windowStart);
+				windowStart = now;
+				windowCount = 0;
+			}
+		}
+
+		private SinkStats stats() {
+			return new SinkStats(getName(), offset, delivered.sum(), failures.sum(), eventsPerSecond, lagEvents, lagMillis);
+		}
+	}
+
+	/**
+	 * Delivery counters for one sink. {@code eventsPerSecond} covers the last completed
+	 * ten-second window; {@code lagEvents} counts ids behind the newest event, gaps included,
+	 * and {@code lagMillis} is the age of the oldest event not yet delivered.
+	 */
+	public static final class SinkStats {
+		private final String sink;
+		private final long offset;
+		private final long delivered;
+		private final long failures;
+		private final double eventsPerSecond;
+		private final long lagEvents;
+		private final long lagMillis;
+
+		public SinkStats(String sink, long offset, long delivered, long failures, double eventsPerSecond, long lagEvents,
+				long lagMillis) {
+			this.sink = sink;
+			this.offset = offset;
+			this.delivered = delivered;
+			this.failures = failures;
+			this.eventsPerSecond = eventsPerSecond;
+			this.lagEvents = lagEvents;
+			this.lagMillis = lagMillis;
+		}
+
+		public String getSink() {
+			return sink;
+		}
+
+		public long getOffset() {
+			return offset;
+		}
+
+		public long getDelivered() {
+			return delivered;
+		}
+
+		public long getFailures() {
+			return failures;
+		}
+
+		public double getEventsPerSecond() {
+			return eventsPerSecond;
+		}
+
+		public long getLagEvents() {
+			return lagEvents;
+		}
+
+		public long getLagMillis() {
+			return lagMillis;
+		}
+	}
+}
@@ -0,0 +1,18 @@
+package com.example.demo.outbox;
+
+import java.util.List;
+
+import com.example.demo.model.persistence.OutboxEvent;
+
+/**
+ * Destination for outbox events. Delivery is at least once: a batch that fails, or whose
+ * offset is not saved, is offered again, so sinks should tolerate duplicates by event id.
+ */
+public interface OutboxSink {
+
+	/** Stable name; the sink's delivery offset is stored under it. */
+	String getName();
+
+	/** Accepts the events in id order, or throws to have the whole batch retried. */
+	void publish(List<OutboxEvent> events) throws Exception;
+}
@@ -0,0 +1,22 @@
+package com.example.demo.querybudget;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The most SQL statements one request to this handler may run, counting those issued by the
+ * security filters on the request thread; a JDBC batch counts once. Work handed to other
+ * threads, such as queued orders or streamed bodies, is not counted. On a controller class it
+ * applies to every handler method that does not declare its own, and zero turns the check off
+ * for handlers whose statements grow with their input.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface QueryBudget {
+
+	int value();
+}
@@ -0,0 +1,47 @@
+package com.example.demo.querybudget;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Wraps the data source so statements can be counted and puts the budget filter in front of
+ * the security chain, so statements run while authenticating count toward the request.
+ */
+@Configuration
+public class QueryBudgetConfiguration implements WebMvcConfigurer {
+
+	@Bean
+	public static BeanPostProcessor queryCountingDataSourcePostProcessor() {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				return bean instanceof DataSource && !(bean instanceof QueryCountingDataSource)
+						? new QueryCountingDataSource((DataSource) bean) : bean;
+			}
+		};
+	}
+
+	@Bean
+	public FilterRegistrationBean<QueryBudgetFilter> queryBudgetFilter(
+			@Value("${query-budget.enforce:false}") boolean enforce,
+			@Value("${query-budget.sample-rate:0.01}") double sampleRate,
+			@Value("${query-budget.default:10}") int defaultBudget) {
+		FilterRegistrationBean<QueryBudgetFilter> registration =
+				new FilterRegistrationBean<>(new QueryBudgetFilter(enforce, sampleRate, defaultBudget));
+		registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+		return registration;
+	}
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(new QueryBudgetInterceptor());
+	}
+}
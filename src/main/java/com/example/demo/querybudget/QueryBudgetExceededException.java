@@ -0,0 +1,11 @@
+package com.example.demo.querybudget;
+
+/** Thrown at the end of a request that ran more statements than its budget when budgets are enforced. */
+public class QueryBudgetExceededException extends IllegalStateException {
+
+	private static final long serialVersionUID = 1L;
+
+	public QueryBudgetExceededException(String message) {
+		super(message);
+	}
+}
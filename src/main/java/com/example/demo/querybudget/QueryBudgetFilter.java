@@ -0,0 +1,58 @@
+package com.example.demo.querybudget;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Records the statements of a request and checks them against its budget once the response is
+ * written. With enforcement on (tests) every request is recorded and going over budget throws
+ * {@link QueryBudgetExceededException}; otherwise only a sample of requests is recorded and the
+ * ones over budget are logged with their SQL.
+ */
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+	private final static Logger logger = LoggerFactory.getLogger(QueryBudgetFilter.class);
+
+	private final boolean enforce;
+	private final double sampleRate;
+	private final int defaultBudget;
+
+	public QueryBudgetFilter(boolean enforce, double sampleRate, int defaultBudget) {
+		this.enforce = enforce;
+		this.sampleRate = sampleRate;
+		this.defaultBudget = defaultBudget;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		if (!enforce && (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+			chain.doFilter(request, response);
+			return;
+		}
+		QueryRecorder recorder = QueryRecorder.start(defaultBudget);
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			QueryRecorder.stop();
+		}
+		if (!recorder.isOverBudget()) {
+			return;
+		}
+		String summary = String.format("%s %s ran %d statements, budget %d", request.getMethod(),
+				request.getRequestURI(), recorder.getCount(), recorder.getBudget());
+		if (enforce) {
+			throw new QueryBudgetExceededException(summary + ":\n  " + String.join("\n  ", recorder.getStatements()));
+		}
+		logger.warn("QueryBudgetFilter::doFilterInternal - {}:\n  {}", summary, String.join("\n  ", recorder.getStatements()));
+	}
+}
@@ -0,0 +1,29 @@
+package com.example.demo.querybudget;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/** Applies the {@link QueryBudget} of the matched handler to the request being recorded. */
+public class QueryBudgetInterceptor implements HandlerInterceptor {
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		QueryRecorder recorder = QueryRecorder.current();
+		if (recorder != null && handler instanceof HandlerMethod) {
+			QueryBudget budget = budgetOf((HandlerMethod) handler);
+			if (budget != null) {
+				recorder.setBudget(budget.value());
+			}
+		}
+		return true;
+	}
+
+	static QueryBudget budgetOf(HandlerMethod handler) {
+		QueryBudget budget = AnnotatedElementUtils.findMergedAnnotation(handler.getMethod(), QueryBudget.class);
+		return budget != null ? budget : AnnotatedElementUtils.findMergedAnnotation(handler.getBeanType(), QueryBudget.class);
+	}
+}
@@ -0,0 +1,89 @@
+package com.example.demo.querybudget;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Counts the statements run through connections taken while the current thread's request is
+ * being recorded, whether they come from Hibernate or from a {@code JdbcTemplate}. Connections
+ * taken outside a recorded request are handed out unwrapped, so unsampled requests and
+ * background work only pay for a thread-local lookup. A batch counts as one statement.
+ */
+public class QueryCountingDataSource extends DelegatingDataSource {
+
+	public QueryCountingDataSource(DataSource target) {
+		super(target);
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return wrap(super.getConnection());
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return wrap(super.getConnection(username, password));
+	}
+
+	private static Connection wrap(Connection connection) {
+		QueryRecorder recorder = QueryRecorder.current();
+		if (recorder == null) {
+			return connection;
+		}
+		return proxy(Connection.class, connection, (proxy, method, args) -> {
+			Object result = invoke(connection, method, args);
+			if (result instanceof Statement) {
+				return wrap((Statement) result, sql(args), recorder);
+			}
+			return result;
+		});
+	}
+
+	private static Statement wrap(Statement statement, String preparedSql, QueryRecorder recorder) {
+		if (statement instanceof CallableStatement) {
+			return proxy(CallableStatement.class, (CallableStatement) statement, counting(statement, preparedSql, recorder));
+		}
+		if (statement instanceof PreparedStatement) {
+			return proxy(PreparedStatement.class, (PreparedStatement) statement, counting(statement, preparedSql, recorder));
+		}
+		return proxy(Statement.class, statement, counting(statement, preparedSql, recorder));
+	}
+
+	private static InvocationHandler counting(Statement statement, String preparedSql, QueryRecorder recorder) {
+		return (proxy, method, args) -> {
+			if (method.getName().startsWith("execute")) {
+				String sql = sql(args);
+				recorder.record(sql != null ? sql : preparedSql != null ? preparedSql : method.getName());
+			}
+			return invoke(statement, method, args);
+		};
+	}
+
+	private static String sql(Object[] args) {
+		return args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T proxy(Class<T> type, T target, InvocationHandler handler) {
+		return (T) Proxy.newProxyInstance(QueryCountingDataSource.class.getClassLoader(), new Class<?>[] {type}, handler);
+	}
+
+	private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getTargetException();
+		}
+	}
+}
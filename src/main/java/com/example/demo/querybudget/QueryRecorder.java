@@ -0,0 +1,67 @@
+package com.example.demo.querybudget;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Statements run on the current thread while a request is being recorded. Only the first
+ * {@link #MAX_STATEMENTS} statements keep their SQL; the count covers all of them.
+ */
+public final class QueryRecorder {
+
+	static final int MAX_STATEMENTS = 100;
+
+	private static final ThreadLocal<QueryRecorder> CURRENT = new ThreadLocal<>();
+
+	private final List<String> statements = new ArrayList<>();
+	private int count;
+	private int budget;
+
+	private QueryRecorder(int budget) {
+		this.budget = budget;
+	}
+
+	static QueryRecorder start(int budget) {
+		QueryRecorder recorder = new QueryRecorder(budget);
+		CURRENT.set(recorder);
+		return recorder;
+	}
+
+	static void stop() {
+		CURRENT.remove();
+	}
+
+	/** Returns the recorder of the request running on this thread, or {@code null} if it is not recorded. */
+	public static QueryRecorder current() {
+		return CURRENT.get();
+	}
+
+	void record(String sql) {
+		count++;
+		if (statements.size() < MAX_STATEMENTS) {
+			statements.add(sql);
+		}
+	}
+
+	public int getCount() {
+		return count;
+	}
+
+	public List<String> getStatements() {
+		return Collections.unmodifiableList(statements);
+	}
+
+	/** A budget of zero or less means no limit. */
+	public int getBudget() {
+		return budget;
+	}
+
+	void setBudget(int budget) {
+		this.budget = budget;
+	}
+
+	boolean isOverBudget() {
+		return budget > 0 && count > budget;
+	}
+}
@@ -0,0 +1,67 @@
+package com.example.demo.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.security.Principal;
+
+/**
+ * Principal built from a verified token. The user and cart ids come from token claims, so
+ * code acting for the caller can use them without loading the user. Tokens issued before the
+ * claims existed carry only the username; their ids are {@code null}.
+ */
+public final class AuthenticatedUser implements Principal {
+
+    private final String username;
+    private final Long userId;
+    private final Long cartId;
+
+    public AuthenticatedUser(String username, Long userId, Long cartId) {
+        this.username = username;
+        this.userId = userId;
+        this.cartId = cartId;
+    }
+
+    /** The caller of the current request, or {@code null} outside an authenticated request. */
+    public static AuthenticatedUser current() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser) {
+            return (AuthenticatedUser) authentication.getPrincipal();
+        }
+        return null;
+    }
+
+    /** Id of {@code username} if that is the current caller and the token carries it, otherwise {@code null}. */
+    public static Long userIdFor(String username) {
+        AuthenticatedUser current = current();
+        return current != null && current.username.equals(username) ? current.userId : null;
+    }
+
+    /** Cart id of {@code username} if that is the current caller and the token carries it, otherwise {@code null}. */
+    public static Long cartIdFor(String username) {
+        AuthenticatedUser current = current();
+        return current != null && current.username.equals(username) ? current.cartId : null;
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getCartId() {
+        return cartId;
+    }
+
+    @Override
+    public String toString() {
+        return username;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.demo.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+/**
+ * When the application is started with {@code --calibrate-bcrypt}, times BCrypt at rising
+ * costs on this host and logs the highest cost whose median hash stays within
+ * {@code security.bcrypt.target-ms}, to be used as {@code security.bcrypt.strength}.
+ */
+@Component
+public class BcryptCostCalibration implements ApplicationRunner {
+
+    private final static Logger logger = LoggerFactory.getLogger(BcryptCostCalibration.class);
+
+    static final String CALIBRATE_OPTION = "calibrate-bcrypt";
+    private static final int MIN_COST = 4;
+    private static final int MAX_COST = 16;
+    private static final int SAMPLES = 3;
+
+    private final long targetMillis;
+
+    public BcryptCostCalibration(@Value("${security.bcrypt.target-ms:250}") long targetMillis) {
+        this.targetMillis = targetMillis;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(CALIBRATE_OPTION)) {
+            return;
+        }
+        int cost = calibrate(targetMillis);
+        logger.info("BcryptCostCalibration::run - Recommended security.bcrypt.strength={} for a {} ms target", cost, targetMillis);
+    }
+
+    /**
+     * Highest cost whose median hash time is at most {@code targetMillis}, or the minimum cost
+     * if even that is slower. Each cost doubles the work, so timing stops at the first miss.
+     */
+    public static int calibrate(long targetMillis) {
+        int best = MIN_COST;
+        for (int cost = MIN_COST; cost <= MAX_COST; cost++) {
+            double millis = medianHashMillis(cost);
+            logger.info("BcryptCostCalibration::calibrate - cost {} takes {} ms", cost, String.format("%.1f", millis));
+            if (millis > targetMillis) {
+                break;
+            }
+            best = cost;
+        }
+        return best;
+    }
+
+    private static double medianHashMillis(int cost) {
+        String salt = BCrypt.gensalt(cost);
+        double[] samples = new double[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long started = System.nanoTime();
+            BCrypt.hashpw("calibration-password", salt);
+            samples[i] = (System.nanoTime() - started) / 1_000_000.0;
+        }
+        Arrays.sort(samples);
+        return samples[SAMPLES / 2];
+    }
+}
@@ -1,13 +1,18 @@
 package com.example.demo.security;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
 @Configuration
 public class BcryptEncoderConfig {
     @Bean
-    public BCryptPasswordEncoder bCryptPasswordEncoderBean() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder bCryptPasswordEncoderBean(
+            @Value("${security.bcrypt.strength:10}") int strength,
+            @Value("${security.bcrypt.threads:0}") int threads,
+            @Value("${security.bcrypt.queue-capacity:64}") int queueCapacity,
+            @Value("${security.bcrypt.timeout-ms:5000}") long timeoutMillis) {
+        return new BoundedPasswordEncoder(strength,
+                threads > 0 ? threads : Runtime.getRuntime().availableProcessors(), queueCapacity, timeoutMillis);
     }
 }
@@ -0,0 +1,194 @@
+package com.example.demo.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs BCrypt on a fixed pool of {@code threads} with at most {@code queueCapacity} waiting
+ * requests, so a login burst uses a bounded share of the CPU instead of every request thread.
+ * A request that finds the queue full, or waits longer than {@code timeoutMillis}, fails at
+ * once with {@link PasswordHashingRejectedException}. The caller's thread still waits for its
+ * own result; what is bounded is how many hashes run and queue at the same time.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final BCryptPasswordEncoder delegate;
+    private final int strength;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+
+    private final LongAdder hashes = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final AtomicLong maxHashNanos = new AtomicLong();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    public BoundedPasswordEncoder(int strength, int threads, int queueCapacity, long timeoutMillis) {
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+        this.timeoutMillis = timeoutMillis;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /** Stops the pool. Requests still queued fail at once instead of waiting out their timeout. */
+    public void shutdown() {
+        for (Runnable queued : executor.shutdownNow()) {
+            if (queued instanceof Future) {
+                ((Future<?>) queued).cancel(false);
+            }
+        }
+    }
+
+    public Stats getStats() {
+        long count = hashes.sum();
+        return new Stats(strength, count, rejected.sum(), timedOut.sum(),
+                count == 0 ? 0 : hashNanos.sum() / count / 1_000_000.0,
+                maxHashNanos.get() / 1_000_000.0,
+                count == 0 ? 0 : waitNanos.sum() / count / 1_000_000.0,
+                executor.getQueue().size(), executor.getActiveCount());
+    }
+
+    private <T> T run(Callable<T> task) {
+        long submitted = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long started = System.nanoTime();
+                waitNanos.add(started - submitted);
+                try {
+                    return task.call();
+                } finally {
+                    long elapsed = System.nanoTime() - started;
+                    hashes.increment();
+                    hashNanos.add(elapsed);
+                    maxHashNanos.accumulateAndGet(elapsed, Math::max);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingRejectedException("Password hashing queue is full");
+        }
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            giveUp(future);
+            timedOut.increment();
+            throw new PasswordHashingRejectedException("Password hashing did not finish within " + timeoutMillis + " ms");
+        } catch (InterruptedException e) {
+            giveUp(future);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingRejectedException("Interrupted while waiting for password hashing");
+        } catch (CancellationException e) {
+            throw new PasswordHashingRejectedException("Password hashing was shut down");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Cancelling does not interrupt BCrypt, and a cancelled task stays in the queue until a
+     * worker reaches it, so it is removed here to free its slot for the next request.
+     */
+    private void giveUp(Future<?> future) {
+        future.cancel(true);
+        executor.remove((Runnable) future);
+    }
+
+    /** Hash and wait times are per hash, in milliseconds. */
+    public static final class Stats {
+        private final int strength;
+        private final long hashes;
+        private final long rejected;
+        private final long timedOut;
+        private final double meanHashMillis;
+        private final double maxHashMillis;
+        private final double meanWaitMillis;
+        private final int queueDepth;
+        private final int activeThreads;
+
+        public Stats(int strength, long hashes, long rejected, long timedOut, double meanHashMillis, double maxHashMillis,
+                     double meanWaitMillis, int queueDepth, int activeThreads) {
+            this.strength = strength;
+            this.hashes = hashes;
+            this.rejected = rejected;
+            this.timedOut = timedOut;
+            this.meanHashMillis = meanHashMillis;
+            this.maxHashMillis = maxHashMillis;
+            this.meanWaitMillis = meanWaitMillis;
+            this.queueDepth = queueDepth;
+            this.activeThreads = activeThreads;
+        }
+
+        public int getStrength() {
+            return strength;
+        }
+
+        public long getHashes() {
+            return hashes;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        public long getTimedOut() {
+            return timedOut;
+        }
+
+        public double getMeanHashMillis() {
+            return meanHashMillis;
+        }
+
+        public double getMaxHashMillis() {
+            return maxHashMillis;
+        }
+
+        public double getMeanWaitMillis() {
+            return meanWaitMillis;
+        }
+
+        public int getQueueDepth() {
+            return queueDepth;
+        }
+
+        public int getActiveThreads() {
+            return activeThreads;
+        }
+    }
+}
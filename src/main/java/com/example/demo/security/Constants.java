@@ -7,5 +7,7 @@ public class Constants {
     public static final String SECRET = "SecretKeyToGenJWTs";
     public static final String HEADER_STRING = "Authorization";
     public static final String SIGN_UP_URL = "/api/user/create";
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String CART_ID_CLAIM = "cid";
 
 }
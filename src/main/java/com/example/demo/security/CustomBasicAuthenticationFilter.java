@@ -1,11 +1,9 @@
 package com.example.demo.security;
 
-import com.auth0.jwt.JWT;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
-import org.springframework.stereotype.Component;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
@@ -14,13 +12,18 @@ import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.ArrayList;
 
-import static com.auth0.jwt.algorithms.Algorithm.HMAC512;
-
-@Component
+/**
+ * Authenticates requests carrying a bearer token. Added to the security chain by
+ * {@link SecurityConfiguration}; it is not a bean, so the servlet container does not run it a
+ * second time outside the chain.
+ */
 public class CustomBasicAuthenticationFilter extends BasicAuthenticationFilter {
 
-    public CustomBasicAuthenticationFilter(AuthenticationManager manager) {
+    private final TokenVerifier tokenVerifier;
+
+    public CustomBasicAuthenticationFilter(AuthenticationManager manager, TokenVerifier tokenVerifier) {
         super(manager);
+        this.tokenVerifier = tokenVerifier;
     }
 
     @Override
@@ -41,10 +44,7 @@ public class CustomBasicAuthenticationFilter extends BasicAuthenticationFilter {
         String token = req.getHeader(Constants.HEADER_STRING);
 
         if (token != null) {
-            String user = JWT.require(HMAC512(Constants.SECRET.getBytes()))
-                .build()
-                .verify(token.replace(Constants.TOKEN_PREFIX, ""))
-                .getSubject();
+            AuthenticatedUser user = tokenVerifier.verify(token.replace(Constants.TOKEN_PREFIX, ""));
 
             if (user != null)
                 return new UsernamePasswordAuthenticationToken(user, null, new ArrayList<>());
@@ -5,25 +5,28 @@ import com.example.demo.model.persistence.User;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.stereotype.Component;
 
 import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Date;
 
-import static com.auth0.jwt.algorithms.Algorithm.HMAC512;
-
 @AllArgsConstructor
 public class CustomUserNamePasswordFilter extends UsernamePasswordAuthenticationFilter {
 
+    private static final String RETRY_AFTER_SECONDS = "1";
+
     private final AuthenticationManager authenticationManager;
 
     @Override
@@ -56,12 +59,35 @@ public class CustomUserNamePasswordFilter extends UsernamePasswordAuthentication
             FilterChain chain,
             Authentication auth
     ) {
-        String token = JWT.create()
-                .withSubject(((org.springframework.security.core.userdetails.User) auth.getPrincipal()).getUsername())
-                .withExpiresAt(new Date(System.currentTimeMillis() + Constants.EXPIRATION_TIME))
-                .sign(HMAC512(Constants.SECRET.getBytes()));
+        UserDetailsServiceImpl.Account account = (UserDetailsServiceImpl.Account) auth.getPrincipal();
+        String token = createToken(account.getUsername(), account.getUserId(), account.getCartId());
 
         response.addHeader(Constants.HEADER_STRING, Constants.TOKEN_PREFIX + token);
     }
 
+    /** Signs the token handed out at login, carrying the user and cart ids. */
+    public static String createToken(String username, Long userId, Long cartId) {
+        return JWT.create()
+                .withSubject(username)
+                .withClaim(Constants.USER_ID_CLAIM, userId)
+                .withClaim(Constants.CART_ID_CLAIM, cartId)
+                .withExpiresAt(new Date(System.currentTimeMillis() + Constants.EXPIRATION_TIME))
+                .sign(TokenVerifier.ALGORITHM);
+    }
+
+    @Override
+    protected void unsuccessfulAuthentication(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            AuthenticationException failed
+    ) throws IOException, ServletException {
+        if (failed instanceof PasswordHashingRejectedException) {
+            SecurityContextHolder.clearContext();
+            response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, failed.getMessage());
+            return;
+        }
+        super.unsuccessfulAuthentication(request, response, failed);
+    }
+
 }
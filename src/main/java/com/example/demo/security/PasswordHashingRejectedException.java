@@ -0,0 +1,14 @@
+package com.example.demo.security;
+
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+
+/**
+ * Thrown when the password hashing pool is saturated and a hash or check was not run.
+ * It is not a verdict on the credentials; the caller should retry later.
+ */
+public class PasswordHashingRejectedException extends InternalAuthenticationServiceException {
+
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.demo.security;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -10,27 +11,34 @@ import org.springframework.security.config.annotation.web.builders.WebSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 
 @EnableWebSecurity
 public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
 
+    /** Actuator endpoints, including the Prometheus scrape, answer only on the loopback interface. */
+    private static final String LOCAL_ONLY = "hasIpAddress('127.0.0.1') or hasIpAddress('::1')";
+
     @Autowired
-    private BCryptPasswordEncoder bCryptPasswordEncoder;
+    private PasswordEncoder bCryptPasswordEncoder;
 
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    @Autowired
+    private TokenVerifier tokenVerifier;
+
 
     @Override
     protected void configure(HttpSecurity http) throws Exception {
         http.cors().and().csrf().disable()
                 .authorizeRequests()
                 .antMatchers(HttpMethod.POST, Constants.SIGN_UP_URL).permitAll()
+                .requestMatchers(EndpointRequest.toAnyEndpoint()).access(LOCAL_ONLY)
                 .anyRequest().authenticated()
                 .and()
                 .addFilter(new CustomUserNamePasswordFilter(authenticationManager()))
-                .addFilter(new CustomBasicAuthenticationFilter(authenticationManager()))
+                .addFilter(new CustomBasicAuthenticationFilter(authenticationManager(), tokenVerifier))
                 .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS);
     }
 
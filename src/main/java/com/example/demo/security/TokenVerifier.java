@@ -0,0 +1,106 @@
+package com.example.demo.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.example.demo.cache.BoundedCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.auth0.jwt.algorithms.Algorithm.HMAC512;
+
+/**
+ * Verifies bearer tokens with one shared verifier and remembers the principal and expiry of
+ * recently verified tokens, so a client repeating its token skips the HMAC. A cached token
+ * is only trusted until its own expiry; {@code security.token-cache.max-size=0} turns the
+ * cache off. Each check is timed as {@code security.token.verify}, tagged with whether the
+ * token came from the cache, was verified or was rejected.
+ */
+@Component
+public class TokenVerifier {
+
+    static final Algorithm ALGORITHM = HMAC512(Constants.SECRET.getBytes());
+
+    private final JWTVerifier verifier = JWT.require(ALGORITHM).build();
+    private final BoundedCache<String, VerifiedToken> verified;
+    private final Timer cachedTimer;
+    private final Timer verifiedTimer;
+    private final Timer rejectedTimer;
+
+    @Autowired
+    public TokenVerifier(MeterRegistry meterRegistry,
+                         @Value("${security.token-cache.max-size:10000}") int maxSize,
+                         @Value("${security.token-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.verified = maxSize > 0 ? new BoundedCache<>(maxSize, ttlSeconds, TimeUnit.SECONDS) : null;
+        this.cachedTimer = timer(meterRegistry, "cached");
+        this.verifiedTimer = timer(meterRegistry, "verified");
+        this.rejectedTimer = timer(meterRegistry, "rejected");
+    }
+
+    public TokenVerifier(int maxSize, long ttlSeconds) {
+        this(new SimpleMeterRegistry(), maxSize, ttlSeconds);
+    }
+
+    /**
+     * Returns the token's principal, or {@code null} if it has no subject.
+     *
+     * @throws JWTVerificationException if the signature or any claim is invalid
+     */
+    public AuthenticatedUser verify(String token) {
+        long start = System.nanoTime();
+        if (verified != null) {
+            VerifiedToken cached = verified.get(token);
+            if (cached != null && cached.expiresAt > System.currentTimeMillis()) {
+                cachedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return cached.user;
+            }
+        }
+        DecodedJWT jwt;
+        try {
+            jwt = verifier.verify(token);
+        } catch (JWTVerificationException e) {
+            rejectedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+        verifiedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (jwt.getSubject() == null) {
+            return null;
+        }
+        AuthenticatedUser user = new AuthenticatedUser(jwt.getSubject(),
+                jwt.getClaim(Constants.USER_ID_CLAIM).asLong(), jwt.getClaim(Constants.CART_ID_CLAIM).asLong());
+        if (verified != null) {
+            long expiresAt = jwt.getExpiresAt() == null ? Long.MAX_VALUE : jwt.getExpiresAt().getTime();
+            verified.put(token, new VerifiedToken(user, expiresAt));
+        }
+        return user;
+    }
+
+    public BoundedCache.Stats stats() {
+        return verified == null ? null : verified.stats();
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("security.token.verify")
+                .description("Bearer token checks; cached tokens skip the HMAC")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static final class VerifiedToken {
+        private final AuthenticatedUser user;
+        private final long expiresAt;
+
+        private VerifiedToken(AuthenticatedUser user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -1,9 +1,9 @@
 package com.example.demo.security;
 
-import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.repositories.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -24,16 +24,33 @@ public class UserDetailsServiceImpl implements UserDetailsService {
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = users.findByUsername(username);
+        UserRepository.Credentials user = users.findCredentialsByUsername(username);
         if (user == null) {
             logger.warn("Failed to login, user not found");
             throw new UsernameNotFoundException(username);
         }
 
-        return new org.springframework.security.core.userdetails.User(
-            user.getUsername(),
-            user.getPassword(),
-            Collections.emptyList()
-        );
+        return new Account(user.getUsername(), user.getPassword(), user.getId(), user.getCartId());
+    }
+
+    /** Login details plus the ids that go into the token's claims. */
+    public static class Account extends User {
+
+        private final Long userId;
+        private final Long cartId;
+
+        public Account(String username, String password, Long userId, Long cartId) {
+            super(username, password, Collections.emptyList());
+            this.userId = userId;
+            this.cartId = cartId;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public Long getCartId() {
+            return cartId;
+        }
     }
 }
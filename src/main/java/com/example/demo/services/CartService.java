@@ -0,0 +1,104 @@
+package com.example.demo.services;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Service;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.requests.CartAction;
+import com.example.demo.model.requests.ModifyCartRequest;
+import com.example.demo.security.AuthenticatedUser;
+
+/**
+ * Resolves users and items for cart edits and hands the mutation to the configured
+ * {@link CartStore}.
+ */
+@Service
+public class CartService {
+
+	private final UserRepository userRepository;
+	private final ItemRepository itemRepository;
+	private final CartStore cartStore;
+
+	public CartService(UserRepository userRepository, ItemRepository itemRepository, CartStore cartStore) {
+		this.userRepository = userRepository;
+		this.itemRepository = itemRepository;
+		this.cartStore = cartStore;
+	}
+
+	/**
+	 * Adds or removes {@code quantity} units of one item. Returns {@code null} if the
+	 * user or the item does not exist.
+	 */
+	public Cart modify(String username, long itemId, int quantity, CartAction action) {
+		Long cartId = cartIdOf(username);
+		if (cartId == null) {
+			return null;
+		}
+		Optional<Item> item = itemRepository.findById(itemId);
+		if (!item.isPresent()) {
+			return null;
+		}
+		return cartStore.update(cartId, cart -> apply(cart, item.get(), quantity, action));
+	}
+
+	/**
+	 * Applies every operation to the user's cart and saves it once. Items are resolved
+	 * with a single query; if the user or any item is missing nothing is applied and
+	 * {@code null} is returned.
+	 */
+	public Cart applyBatch(String username, List<ModifyCartRequest> operations) {
+		Long cartId = cartIdOf(username);
+		if (cartId == null) {
+			return null;
+		}
+		Set<Long> itemIds = operations.stream()
+				.map(ModifyCartRequest::getItemId)
+				.collect(Collectors.toSet());
+		Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+				.collect(Collectors.toMap(Item::getId, Function.identity()));
+		if (items.size() != itemIds.size()) {
+			return null;
+		}
+		return cartStore.update(cartId, cart -> {
+			for (ModifyCartRequest operation : operations) {
+				apply(cart, items.get(operation.getItemId()), operation.getQuantity(), operation.getAction());
+			}
+		});
+	}
+
+	public Cart currentCart(User user) {
+		return cartStore.current(user.getCart());
+	}
+
+	public void flush(User user) {
+		cartStore.flush(user.getCart().getId());
+	}
+
+	/** Takes the cart id from the caller's token when it is their own cart, saving the user lookup. */
+	private Long cartIdOf(String username) {
+		Long cartId = AuthenticatedUser.cartIdFor(username);
+		if (cartId != null) {
+			return cartId;
+		}
+		User user = userRepository.findByUsername(username);
+		return user == null ? null : user.getCart().getId();
+	}
+
+	private static void apply(Cart cart, Item item, int quantity, CartAction action) {
+		if (action == CartAction.REMOVE) {
+			cart.removeItem(item, quantity);
+		} else {
+			cart.addItem(item, quantity);
+		}
+	}
+}
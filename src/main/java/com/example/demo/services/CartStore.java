@@ -0,0 +1,19 @@
+package com.example.demo.services;
+
+import java.util.function.Consumer;
+
+import com.example.demo.model.persistence.Cart;
+
+/**
+ * Where cart state lives between requests. {@link TransactionalCartStore} writes every
+ * change through to the database; {@link WriteBehindCartStore} keeps carts in memory and
+ * flushes them in batches.
+ */
+public interface CartStore {
+
+	Cart update(Long cartId, Consumer<Cart> mutation);
+
+	Cart current(Cart persistent);
+
+	void flush(Long cartId);
+}
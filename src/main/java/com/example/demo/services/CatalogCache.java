@@ -0,0 +1,78 @@
+package com.example.demo.services;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.demo.cache.BoundedCache;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.ItemChangedEvent;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+
+/**
+ * Read-through cache in front of the catalog queries of {@link ItemRepository}.
+ * Every region is dropped once a transaction that wrote an {@link Item} commits.
+ */
+@Service
+public class CatalogCache {
+
+	private static final String ALL_ITEMS = "all";
+
+	private final ItemRepository itemRepository;
+
+	private final BoundedCache<String, List<Item>> allItems;
+	private final BoundedCache<Long, Optional<Item>> itemsById;
+	private final BoundedCache<String, List<Item>> itemsByName;
+
+	@Autowired
+	public CatalogCache(ItemRepository itemRepository,
+			@Value("${catalog.cache.max-size:1000}") int maxSize,
+			@Value("${catalog.cache.ttl-seconds:300}") long ttlSeconds) {
+		this.itemRepository = itemRepository;
+		this.allItems = new BoundedCache<>(1, ttlSeconds, TimeUnit.SECONDS);
+		this.itemsById = new BoundedCache<>(maxSize, ttlSeconds, TimeUnit.SECONDS);
+		this.itemsByName = new BoundedCache<>(maxSize, ttlSeconds, TimeUnit.SECONDS);
+	}
+
+	public List<Item> findAll() {
+		return allItems.get(ALL_ITEMS, key -> Collections.unmodifiableList(itemRepository.findAll()));
+	}
+
+	public Optional<Item> findById(Long id) {
+		return itemsById.get(id, itemRepository::findById);
+	}
+
+	public List<Item> findByName(String name) {
+		return itemsByName.get(name, key -> {
+			List<Item> items = itemRepository.findByName(key);
+			return items == null ? Collections.emptyList() : Collections.unmodifiableList(items);
+		});
+	}
+
+	public void invalidateAll() {
+		allItems.invalidateAll();
+		itemsById.invalidateAll();
+		itemsByName.invalidateAll();
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onItemChanged(ItemChangedEvent event) {
+		invalidateAll();
+	}
+
+	public Map<String, BoundedCache.Stats> stats() {
+		Map<String, BoundedCache.Stats> stats = new LinkedHashMap<>();
+		stats.put("all", allItems.stats());
+		stats.put("byId", itemsById.stats());
+		stats.put("byName", itemsByName.stats());
+		return stats;
+	}
+}
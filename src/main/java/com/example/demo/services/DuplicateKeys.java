@@ -0,0 +1,31 @@
+package com.example.demo.services;
+
+import java.sql.SQLException;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+
+/**
+ * Tells a unique-key collision apart from the other integrity violations, such as a foreign key
+ * to a deleted row or a null column. Spring's JPA translation reports all of them as a plain
+ * {@link DataIntegrityViolationException}, so the SQL state of the cause decides.
+ */
+final class DuplicateKeys {
+
+	private static final String UNIQUE_VIOLATION = "23505";
+
+	private DuplicateKeys() {
+	}
+
+	static boolean isDuplicateKey(DataIntegrityViolationException e) {
+		if (e instanceof DuplicateKeyException) {
+			return true;
+		}
+		for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+			if (cause instanceof SQLException && UNIQUE_VIOLATION.equals(((SQLException) cause).getSQLState())) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,191 @@
+package com.example.demo.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.cache.BoundedCache;
+import com.example.demo.model.persistence.IdempotencyRecord;
+import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.persistence.repositories.IdempotencyRecordRepository;
+import com.example.demo.model.persistence.repositories.OrderRepository;
+import com.example.demo.model.responses.OrderResponse;
+
+/**
+ * Makes order submission safe to retry under an {@code Idempotency-Key}. The first request
+ * claims the key and creates the order in one transaction; later requests with the same key
+ * get the stored response from a bounded in-process cache, or rebuild it from the
+ * {@code idempotency_key} table on a cache miss or on another node. Keys are scoped to the
+ * user and honoured for {@code order.idempotency.ttl-seconds}. Expired rows are deleted every
+ * {@code order.idempotency.purge-interval-seconds}.
+ */
+@Service
+public class IdempotentOrderService {
+
+	private final static Logger logger = LoggerFactory.getLogger(IdempotentOrderService.class);
+
+	private final IdempotencyRecordRepository idempotencyRecordRepository;
+	private final OrderRepository orderRepository;
+	private final OrderService orderService;
+	private final TransactionTemplate transactionTemplate;
+	private final BoundedCache<String, OrderResponse> responses;
+	private final Duration ttl;
+	private final long purgeIntervalSeconds;
+
+	private ScheduledExecutorService scheduler;
+
+	@Autowired
+	public IdempotentOrderService(IdempotencyRecordRepository idempotencyRecordRepository,
+			OrderRepository orderRepository, OrderService orderService, PlatformTransactionManager transactionManager,
+			@Value("${order.idempotency.max-size:10000}") int maxSize,
+			@Value("${order.idempotency.ttl-seconds:86400}") long ttlSeconds,
+			@Value("${order.idempotency.purge-interval-seconds:3600}") long purgeIntervalSeconds) {
+		this.idempotencyRecordRepository = idempotencyRecordRepository;
+		this.orderRepository = orderRepository;
+		this.orderService = orderService;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.responses = new BoundedCache<>(maxSize, ttlSeconds, TimeUnit.SECONDS);
+		this.ttl = Duration.ofSeconds(ttlSeconds);
+		this.purgeIntervalSeconds = purgeIntervalSeconds;
+	}
+
+	@PostConstruct
+	public void start() {
+		scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "idempotency-purge");
+			thread.setDaemon(true);
+			return thread;
+		});
+		scheduler.scheduleWithFixedDelay(this::purgeQuietly, purgeIntervalSeconds, purgeIntervalSeconds, TimeUnit.SECONDS);
+	}
+
+	@PreDestroy
+	public void stop() {
+		scheduler.shutdownNow();
+	}
+
+	/** Deletes the stored keys older than the TTL; a request reusing one would replace it anyway. */
+	public int purgeExpired() {
+		Integer purged = transactionTemplate.execute(status ->
+				idempotencyRecordRepository.deleteCreatedBefore(Instant.now().minus(ttl)));
+		if (purged != null && purged > 0) {
+			logger.info("IdempotentOrderService::purgeExpired - Deleted {} expired idempotency keys", purged);
+		}
+		return purged == null ? 0 : purged;
+	}
+
+	private void purgeQuietly() {
+		try {
+			purgeExpired();
+		} catch (RuntimeException e) {
+			logger.error("IdempotentOrderService::purgeQuietly - Purge failed, retrying next interval", e);
+		}
+	}
+
+	/** Returns the response stored for this key, or {@code null} if the key is new or expired. */
+	public OrderResponse find(String username, String key) {
+		return responses.get(cacheKey(username, key), cacheKey -> load(username, key));
+	}
+
+	/**
+	 * Creates the order unless the key has already been used, in which case the stored
+	 * response is returned and {@code orderFactory} is not called. Returns {@code null} if a
+	 * concurrent request holds the key but has not produced an order.
+	 */
+	public OrderResponse submitOnce(String username, String key, Supplier<UserOrder> orderFactory) {
+		OrderResponse stored = find(username, key);
+		if (stored != null) {
+			return stored;
+		}
+		try {
+			OrderResponse response = transactionTemplate.execute(status -> {
+				IdempotencyRecord record = claim(username, key);
+				if (record == null) {
+					return null;
+				}
+				UserOrder order = orderService.place(orderFactory.get());
+				record.setOrderId(order.getId());
+				idempotencyRecordRepository.save(record);
+				return OrderResponse.from(order);
+			});
+			if (response == null) {
+				return find(username, key);
+			}
+			responses.put(cacheKey(username, key), response);
+			return response;
+		} catch (KeyAlreadyClaimedException e) {
+			logger.info("IdempotentOrderService::submitOnce - Key already claimed for user {}, replaying", username);
+			return find(username, key);
+		}
+	}
+
+	/**
+	 * Inserts the key, replacing an expired row. Returns {@code null} if a live row already
+	 * holds it, and throws {@link KeyAlreadyClaimedException} if a concurrent request inserts
+	 * it first, which also rolls back the surrounding transaction.
+	 */
+	private IdempotencyRecord claim(String username, String key) {
+		try {
+			IdempotencyRecord existing = idempotencyRecordRepository.findByUsernameAndKey(username, key);
+			if (existing != null) {
+				if (!isExpired(existing)) {
+					return null;
+				}
+				idempotencyRecordRepository.delete(existing);
+				idempotencyRecordRepository.flush();
+			}
+			IdempotencyRecord record = new IdempotencyRecord(username, key, Instant.now());
+			idempotencyRecordRepository.saveAndFlush(record);
+			return record;
+		} catch (DataIntegrityViolationException e) {
+			if (!DuplicateKeys.isDuplicateKey(e)) {
+				throw e;
+			}
+			throw new KeyAlreadyClaimedException(e);
+		} catch (ConcurrencyFailureException e) {
+			throw new KeyAlreadyClaimedException(e);
+		}
+	}
+
+	private OrderResponse load(String username, String key) {
+		IdempotencyRecord record = idempotencyRecordRepository.findByUsernameAndKey(username, key);
+		if (record == null || record.getOrderId() == null || isExpired(record)) {
+			return null;
+		}
+		List<UserOrder> orders = orderRepository.findWithLinesByIdIn(Collections.singleton(record.getOrderId()));
+		return orders.isEmpty() ? null : OrderResponse.from(orders.get(0));
+	}
+
+	private boolean isExpired(IdempotencyRecord record) {
+		return record.getCreatedAt().plus(ttl).isBefore(Instant.now());
+	}
+
+	private static String cacheKey(String username, String key) {
+		return username + '\u0000' + key;
+	}
+
+	private static final class KeyAlreadyClaimedException extends RuntimeException {
+
+		KeyAlreadyClaimedException(Throwable cause) {
+			super(cause);
+		}
+	}
+}
@@ -0,0 +1,214 @@
+package com.example.demo.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.ItemChangedEvent;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+
+/**
+ * Tokenized inverted index over {@link Item#getName()} and {@link Item#getDescription()}.
+ * Built when the application is ready and kept current from {@link ItemChangedEvent}s.
+ * Results are ranked by the number of query terms matched, then by a tf-idf score in
+ * which a term found in the name weighs more than one found in the description.
+ */
+@Service
+public class ItemSearchIndex {
+
+	private final static Logger logger = LoggerFactory.getLogger(ItemSearchIndex.class);
+
+	private static final float NAME_WEIGHT = 3.0f;
+	private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+	private static final Comparator<Hit> RANKING = (a, b) -> {
+		if (a.matchedTerms != b.matchedTerms) {
+			return Integer.compare(b.matchedTerms, a.matchedTerms);
+		}
+		if (a.score != b.score) {
+			return Double.compare(b.score, a.score);
+		}
+		return Long.compare(a.itemId, b.itemId);
+	};
+
+	@Autowired
+	private ItemRepository itemRepository;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final Map<String, Map<Long, Float>> postings = new HashMap<>();
+	private final Map<Long, Item> documents = new HashMap<>();
+	private final Map<Long, Set<String>> termsByItem = new HashMap<>();
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuild() {
+		List<Item> items = itemRepository.findAll();
+		lock.writeLock().lock();
+		try {
+			postings.clear();
+			documents.clear();
+			termsByItem.clear();
+			items.forEach(this::addUnlocked);
+		} finally {
+			lock.writeLock().unlock();
+		}
+		logger.info("ItemSearchIndex::rebuild - Indexed {} items", items.size());
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onItemChanged(ItemChangedEvent event) {
+		if (event.isRemoved()) {
+			remove(event.getItem().getId());
+		} else {
+			index(event.getItem());
+		}
+	}
+
+	public void index(Item item) {
+		lock.writeLock().lock();
+		try {
+			removeUnlocked(item.getId());
+			addUnlocked(item);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void indexAll(Collection<Item> items) {
+		lock.writeLock().lock();
+		try {
+			for (Item item : items) {
+				removeUnlocked(item.getId());
+				addUnlocked(item);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void remove(Long itemId) {
+		lock.writeLock().lock();
+		try {
+			removeUnlocked(itemId);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public List<Item> search(String query, int limit) {
+		Set<String> terms = new LinkedHashSet<>(tokenize(query));
+		if (terms.isEmpty() || limit <= 0) {
+			return new ArrayList<>();
+		}
+		lock.readLock().lock();
+		try {
+			Map<Long, Hit> hits = new HashMap<>();
+			int documentCount = documents.size();
+			for (String term : terms) {
+				Map<Long, Float> matches = postings.get(term);
+				if (matches == null) {
+					continue;
+				}
+				double idf = Math.log(1.0 + (double) documentCount / matches.size());
+				matches.forEach((itemId, weight) ->
+						hits.computeIfAbsent(itemId, Hit::new).add(weight * idf));
+			}
+			PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, RANKING.reversed());
+			for (Hit hit : hits.values()) {
+				if (top.size() < limit) {
+					top.add(hit);
+				} else if (RANKING.compare(hit, top.peek()) < 0) {
+					top.poll();
+					top.add(hit);
+				}
+			}
+			List<Hit> ranked = new ArrayList<>(top);
+			ranked.sort(RANKING);
+			List<Item> items = new ArrayList<>(ranked.size());
+			for (Hit hit : ranked) {
+				items.add(documents.get(hit.itemId));
+			}
+			return items;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return documents.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	static List<String> tokenize(String text) {
+		List<String> tokens = new ArrayList<>();
+		if (text == null) {
+			return tokens;
+		}
+		for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+			if (!token.isEmpty()) {
+				tokens.add(token);
+			}
+		}
+		return tokens;
+	}
+
+	private void addUnlocked(Item item) {
+		Map<String, Float> weights = new HashMap<>();
+		tokenize(item.getName()).forEach(term -> weights.merge(term, NAME_WEIGHT, Float::sum));
+		tokenize(item.getDescription()).forEach(term -> weights.merge(term, DESCRIPTION_WEIGHT, Float::sum));
+		weights.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(item.getId(), weight));
+		documents.put(item.getId(), item);
+		termsByItem.put(item.getId(), weights.keySet());
+	}
+
+	private void removeUnlocked(Long itemId) {
+		documents.remove(itemId);
+		Set<String> terms = termsByItem.remove(itemId);
+		if (terms == null) {
+			return;
+		}
+		for (String term : terms) {
+			Map<Long, Float> matches = postings.get(term);
+			matches.remove(itemId);
+			if (matches.isEmpty()) {
+				postings.remove(term);
+			}
+		}
+	}
+
+	private static final class Hit {
+		private final long itemId;
+		private int matchedTerms;
+		private double score;
+
+		private Hit(long itemId) {
+			this.itemId = itemId;
+		}
+
+		private void add(double termScore) {
+			matchedTerms++;
+			score += termScore;
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package com.example.demo.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Writes the catalog as a JSON array straight from a database cursor. Each item is
+ * detached once written, so neither the heap nor the persistence context grows with the catalog.
+ */
+@Service
+public class ItemStreamService {
+
+	private static final int FLUSH_INTERVAL = 500;
+
+	@Autowired
+	private ItemRepository itemRepository;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Transactional(readOnly = true)
+	public void writeAll(OutputStream out) throws IOException {
+		ObjectWriter writer = objectMapper.writerFor(Item.class)
+				.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+				Stream<Item> items = itemRepository.streamAllOrderById()) {
+			generator.writeStartArray();
+			int written = 0;
+			for (Iterator<Item> it = items.iterator(); it.hasNext();) {
+				Item item = it.next();
+				writer.writeValue(generator, item);
+				entityManager.detach(item);
+				if (++written % FLUSH_INTERVAL == 0) {
+					generator.flush();
+				}
+			}
+			generator.writeEndArray();
+		}
+	}
+}
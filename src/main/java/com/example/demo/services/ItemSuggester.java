@@ -0,0 +1,233 @@
+package com.example.demo.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.ItemChangedEvent;
+import com.example.demo.model.responses.ItemSuggestion;
+
+/**
+ * Prefix autocomplete over {@link Item#getName()}. Names are indexed from the start of every
+ * word in a path-compressed trie: an edge holds a run of characters and a node its precomputed
+ * top-k suggestions, so a lookup only walks the prefix. The trie is an immutable snapshot.
+ * Item writes schedule one rebuild on a background thread however many items changed, and
+ * lookups keep reading the previous snapshot until the new one is swapped in.
+ */
+@Service
+public class ItemSuggester {
+
+	private final static Logger logger = LoggerFactory.getLogger(ItemSuggester.class);
+
+	private static final Comparator<ItemSuggestion> RANKING = Comparator
+			.comparingInt((ItemSuggestion suggestion) -> suggestion.getName().length())
+			.thenComparing(ItemSuggestion::getName, String.CASE_INSENSITIVE_ORDER)
+			.thenComparingLong(ItemSuggestion::getId);
+
+	@Autowired
+	private CatalogCache catalogCache;
+
+	private final int topK;
+	private final Map<Long, ItemSuggestion> names = new ConcurrentHashMap<>();
+	private final AtomicBoolean rebuildPending = new AtomicBoolean();
+	private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "item-suggester");
+		thread.setDaemon(true);
+		return thread;
+	});
+	private volatile Node root = Node.EMPTY;
+
+	public ItemSuggester(@Value("${catalog.suggest.top-k:10}") int topK) {
+		this.topK = topK;
+	}
+
+	@PreDestroy
+	public void stop() {
+		rebuilder.shutdownNow();
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void load() {
+		names.clear();
+		putAll(catalogCache.findAll());
+		logger.info("ItemSuggester::load - Indexed {} item names", names.size());
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onItemChanged(ItemChangedEvent event) {
+		Item item = event.getItem();
+		if (event.isRemoved()) {
+			names.remove(item.getId());
+		} else {
+			names.put(item.getId(), new ItemSuggestion(item.getId(), item.getName()));
+		}
+		scheduleRebuild();
+	}
+
+	/** Bulk loads rebuild on the caller's thread, so their names are suggested once this returns. */
+	public void putAll(Collection<Item> items) {
+		items.forEach(item -> names.put(item.getId(), new ItemSuggestion(item.getId(), item.getName())));
+		rebuild();
+	}
+
+	public List<ItemSuggestion> suggest(String prefix, int limit) {
+		Node node = root;
+		String key = prefix.toLowerCase(Locale.ROOT);
+		int i = 0;
+		while (i < key.length()) {
+			int edge = node.edge(key.charAt(i));
+			if (edge < 0) {
+				return new ArrayList<>();
+			}
+			String label = node.labels[edge];
+			int matched = 0;
+			while (matched < label.length() && i + matched < key.length() && label.charAt(matched) == key.charAt(i + matched)) {
+				matched++;
+			}
+			if (matched < label.length() && i + matched < key.length()) {
+				return new ArrayList<>();
+			}
+			node = node.children[edge];
+			i += matched;
+		}
+		return Arrays.asList(node.top).subList(0, Math.min(limit, node.top.length));
+	}
+
+	/** Writes that arrive while a rebuild runs schedule one more, so the last snapshot has them all. */
+	private void scheduleRebuild() {
+		if (rebuildPending.compareAndSet(false, true)) {
+			try {
+				rebuilder.execute(() -> {
+					rebuildPending.set(false);
+					try {
+						rebuild();
+					} catch (RuntimeException e) {
+						logger.error("ItemSuggester::scheduleRebuild - Rebuild failed, keeping the previous snapshot", e);
+					}
+				});
+			} catch (RejectedExecutionException e) {
+				rebuildPending.set(false);
+			}
+		}
+	}
+
+	private synchronized void rebuild() {
+		root = build(names.values());
+	}
+
+	private Node build(Collection<ItemSuggestion> suggestions) {
+		Builder builder = new Builder();
+		for (ItemSuggestion suggestion : suggestions) {
+			String name = suggestion.getName().toLowerCase(Locale.ROOT);
+			for (int start = 0; start < name.length(); start++) {
+				if (start == 0 || (!Character.isLetterOrDigit(name.charAt(start - 1))
+						&& Character.isLetterOrDigit(name.charAt(start)))) {
+					builder.insert(name, start, suggestion);
+				}
+			}
+		}
+		return builder.freeze();
+	}
+
+	private final class Builder {
+		private final TreeMap<Character, Builder> children = new TreeMap<>();
+		private final List<ItemSuggestion> top = new ArrayList<>();
+		private boolean terminal;
+
+		private void insert(String name, int from, ItemSuggestion suggestion) {
+			Builder node = this;
+			node.offer(suggestion);
+			for (int i = from; i < name.length(); i++) {
+				node = node.children.computeIfAbsent(name.charAt(i), c -> new Builder());
+				node.offer(suggestion);
+			}
+			node.terminal = true;
+		}
+
+		private void offer(ItemSuggestion suggestion) {
+			for (ItemSuggestion existing : top) {
+				if (existing.getId() == suggestion.getId()) {
+					return;
+				}
+			}
+			int position = 0;
+			while (position < top.size() && RANKING.compare(top.get(position), suggestion) <= 0) {
+				position++;
+			}
+			if (position < topK) {
+				top.add(position, suggestion);
+				if (top.size() > topK) {
+					top.remove(topK);
+				}
+			}
+		}
+
+		/**
+		 * A node where no name ends and only one child follows holds the same suggestions as
+		 * that child, so such chains collapse into one edge labelled with all their characters.
+		 */
+		private Node freeze() {
+			char[] keys = new char[children.size()];
+			String[] labels = new String[children.size()];
+			Node[] nodes = new Node[children.size()];
+			int i = 0;
+			for (Map.Entry<Character, Builder> child : children.entrySet()) {
+				StringBuilder label = new StringBuilder().append(child.getKey());
+				Builder next = child.getValue();
+				while (!next.terminal && next.children.size() == 1) {
+					Map.Entry<Character, Builder> only = next.children.firstEntry();
+					label.append(only.getKey());
+					next = only.getValue();
+				}
+				keys[i] = child.getKey();
+				labels[i] = label.toString();
+				nodes[i] = next.freeze();
+				i++;
+			}
+			return new Node(keys, labels, nodes, top.toArray(new ItemSuggestion[0]));
+		}
+	}
+
+	private static final class Node {
+		private static final Node EMPTY = new Node(new char[0], new String[0], new Node[0], new ItemSuggestion[0]);
+
+		/** First character of each edge label, sorted, for the binary search in {@link #edge}. */
+		private final char[] keys;
+		private final String[] labels;
+		private final Node[] children;
+		private final ItemSuggestion[] top;
+
+		private Node(char[] keys, String[] labels, Node[] children, ItemSuggestion[] top) {
+			this.keys = keys;
+			this.labels = labels;
+			this.children = children;
+			this.top = top;
+		}
+
+		private int edge(char first) {
+			return Arrays.binarySearch(keys, first);
+		}
+	}
+}
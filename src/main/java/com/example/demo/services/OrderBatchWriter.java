@@ -0,0 +1,64 @@
+package com.example.demo.services;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.model.persistence.Sequences;
+
+/**
+ * Inserts queued orders and their line snapshots with two JDBC batches, adds them to the sales
+ * rollups and appends their outbox events, in one transaction.
+ */
+@Component
+public class OrderBatchWriter {
+
+	private static final String INSERT_ORDER = "insert into user_order (id, total, user_id, placed_at) values (?, ?, ?, ?)";
+	private static final String INSERT_ORDER_LINE = "insert into order_line (id, order_id, item_id, item_name, unit_price, quantity) "
+			+ "values (?, ?, ?, ?, ?, ?)";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final SalesRollupService salesRollupService;
+	private final OrderEventOutbox orderEventOutbox;
+
+	@Autowired
+	public OrderBatchWriter(JdbcTemplate jdbcTemplate, SalesRollupService salesRollupService,
+			OrderEventOutbox orderEventOutbox) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.salesRollupService = salesRollupService;
+		this.orderEventOutbox = orderEventOutbox;
+	}
+
+	/** Returns the order ids, drawn from the order sequence, in the order of {@code orders}. */
+	@Transactional
+	public List<Long> write(List<PendingOrder> orders) {
+		List<Long> orderIds = Sequences.nextIds(jdbcTemplate, Sequences.USER_ORDER, orders.size());
+		List<Object[]> rows = new ArrayList<>(orders.size());
+		int lineCount = 0;
+		for (int i = 0; i < orders.size(); i++) {
+			PendingOrder order = orders.get(i);
+			rows.add(new Object[] {orderIds.get(i), order.getTotal().toBigDecimal(), order.getUserId(),
+					Timestamp.from(order.getPlacedAt())});
+			lineCount += order.getLines().size();
+		}
+		jdbcTemplate.batchUpdate(INSERT_ORDER, rows);
+		Iterator<Long> lineIds = Sequences.nextIds(jdbcTemplate, Sequences.ORDER_LINE, lineCount).iterator();
+		List<Object[]> lines = new ArrayList<>();
+		for (int i = 0; i < orders.size(); i++) {
+			for (PendingOrder.Line line : orders.get(i).getLines()) {
+				lines.add(new Object[] {lineIds.next(), orderIds.get(i), line.getItemId(), line.getName(),
+						line.getUnitPrice().toBigDecimal(), line.getQuantity()});
+			}
+		}
+		jdbcTemplate.batchUpdate(INSERT_ORDER_LINE, lines);
+		salesRollupService.record(orders);
+		orderEventOutbox.record(orders, orderIds);
+		return orderIds;
+	}
+}
@@ -0,0 +1,115 @@
+package com.example.demo.services;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.model.persistence.Money;
+import com.example.demo.model.persistence.OrderLine;
+import com.example.demo.model.persistence.UserOrder;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Appends an {@value #ORDER_PLACED} row to {@code outbox_event} for every order written. It
+ * must join the transaction that inserts the order, so the event exists if and only if the
+ * order does; {@link com.example.demo.outbox.OutboxDispatcher} delivers it after commit.
+ */
+@Component
+public class OrderEventOutbox {
+
+	public static final String ORDER_PLACED = "OrderPlaced";
+
+	private static final String INSERT_EVENT = "insert into outbox_event (event_type, aggregate_id, payload, created_at) "
+			+ "values (?, ?, ?, ?)";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final ObjectWriter writer;
+
+	@Autowired
+	public OrderEventOutbox(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.writer = objectMapper.writerFor(OrderPlaced.class);
+	}
+
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void record(UserOrder order) {
+		List<OrderPlaced.Line> lines = new ArrayList<>();
+		for (OrderLine line : order.getLines()) {
+			lines.add(new OrderPlaced.Line(line.getItemId(), line.getName(), line.getUnitPrice(), line.getQuantity()));
+		}
+		OrderPlaced event = new OrderPlaced(order.getId(), order.getUser().getId(), order.getPlacedAt(), order.getTotal(), lines);
+		jdbcTemplate.update(INSERT_EVENT, row(event));
+	}
+
+	/** {@code orderIds} are the generated ids of {@code orders}, in the same order. */
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void record(List<PendingOrder> orders, List<Long> orderIds) {
+		List<Object[]> rows = new ArrayList<>(orders.size());
+		for (int i = 0; i < orders.size(); i++) {
+			PendingOrder order = orders.get(i);
+			List<OrderPlaced.Line> lines = new ArrayList<>();
+			for (PendingOrder.Line line : order.getLines()) {
+				lines.add(new OrderPlaced.Line(line.getItemId(), line.getName(), line.getUnitPrice(), line.getQuantity()));
+			}
+			rows.add(row(new OrderPlaced(orderIds.get(i), order.getUserId(), order.getPlacedAt(), order.getTotal(), lines)));
+		}
+		jdbcTemplate.batchUpdate(INSERT_EVENT, rows);
+	}
+
+	private Object[] row(OrderPlaced event) {
+		try {
+			return new Object[] {ORDER_PLACED, event.orderId, writer.writeValueAsString(event), Timestamp.from(Instant.now())};
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Could not serialize event for order " + event.orderId, e);
+		}
+	}
+
+	static final class OrderPlaced {
+		@JsonProperty
+		private final long orderId;
+		@JsonProperty
+		private final long userId;
+		@JsonProperty
+		private final Instant placedAt;
+		@JsonProperty
+		private final Money total;
+		@JsonProperty
+		private final List<Line> lines;
+
+		OrderPlaced(long orderId, long userId, Instant placedAt, Money total, List<Line> lines) {
+			this.orderId = orderId;
+			this.userId = userId;
+			this.placedAt = placedAt;
+			this.total = total;
+			this.lines = lines;
+		}
+
+		static final class Line {
+			@JsonProperty
+			private final long itemId;
+			@JsonProperty
+			private final String name;
+			@JsonProperty
+			private final Money unitPrice;
+			@JsonProperty
+			private final int quantity;
+
+			Line(long itemId, String name, Money unitPrice, int quantity) {
+				this.itemId = itemId;
+				this.name = name;
+				this.unitPrice = unitPrice;
+				this.quantity = quantity;
+			}
+		}
+	}
+}
@@ -0,0 +1,34 @@
+package com.example.demo.services;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.persistence.repositories.OrderRepository;
+
+/**
+ * Saves an order, adds it to the sales rollups and appends its outbox event in the same
+ * transaction.
+ */
+@Service
+public class OrderService {
+
+	private final OrderRepository orderRepository;
+	private final SalesRollupService salesRollupService;
+	private final OrderEventOutbox orderEventOutbox;
+
+	public OrderService(OrderRepository orderRepository, SalesRollupService salesRollupService,
+			OrderEventOutbox orderEventOutbox) {
+		this.orderRepository = orderRepository;
+		this.salesRollupService = salesRollupService;
+		this.orderEventOutbox = orderEventOutbox;
+	}
+
+	@Transactional
+	public UserOrder place(UserOrder order) {
+		orderRepository.save(order);
+		salesRollupService.record(order);
+		orderEventOutbox.record(order);
+		return order;
+	}
+}
@@ -0,0 +1,163 @@
+package com.example.demo.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.cache.BoundedCache;
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.responses.OrderSubmission;
+
+/**
+ * Bounded in-process queue for asynchronously submitted orders. Worker threads drain up to
+ * {@code order.async.batch-size} orders at a time and hand them to {@link OrderBatchWriter}.
+ * When the queue is full {@link #submit} refuses the order instead of blocking the caller.
+ * Queued orders are lost if the process dies before they are written.
+ */
+@Service
+public class OrderSubmissionQueue {
+
+	private final static Logger logger = LoggerFactory.getLogger(OrderSubmissionQueue.class);
+
+	private static final long POLL_MILLIS = 200;
+
+	private final OrderBatchWriter orderBatchWriter;
+	private final BlockingQueue<PendingOrder> queue;
+	private final BoundedCache<String, OrderSubmission> submissions;
+	private final int workerCount;
+	private final int batchSize;
+
+	private final List<Thread> workers = new ArrayList<>();
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder written = new LongAdder();
+	private final LongAdder failed = new LongAdder();
+	private volatile boolean running;
+
+	@Autowired
+	public OrderSubmissionQueue(OrderBatchWriter orderBatchWriter,
+			@Value("${order.async.queue-capacity:1000}") int queueCapacity,
+			@Value("${order.async.workers:2}") int workerCount,
+			@Value("${order.async.batch-size:100}") int batchSize,
+			@Value("${order.async.status-max-size:10000}") int statusMaxSize,
+			@Value("${order.async.status-ttl-seconds:3600}") long statusTtlSeconds) {
+		this.orderBatchWriter = orderBatchWriter;
+		this.queue = new ArrayBlockingQueue<>(queueCapacity);
+		this.submissions = new BoundedCache<>(statusMaxSize, statusTtlSeconds, TimeUnit.SECONDS);
+		this.workerCount = workerCount;
+		this.batchSize = batchSize;
+	}
+
+	@PostConstruct
+	public void start() {
+		running = true;
+		for (int i = 0; i < workerCount; i++) {
+			Thread worker = new Thread(this::drain, "order-writer-" + i);
+			worker.setDaemon(true);
+			worker.start();
+			workers.add(worker);
+		}
+	}
+
+	/** Stops taking new work and waits for the workers to write what is already queued. */
+	@PreDestroy
+	public void stop() throws InterruptedException {
+		running = false;
+		for (Thread worker : workers) {
+			worker.join(TimeUnit.SECONDS.toMillis(30));
+		}
+	}
+
+	/**
+	 * Snapshots the cart and queues it. Returns {@code null} without waiting if the queue is
+	 * full.
+	 */
+	public OrderSubmission submit(User user, Cart cart) {
+		String reference = UUID.randomUUID().toString();
+		OrderSubmission submission = OrderSubmission.queued(reference);
+		submissions.put(reference, submission);
+		if (!running || !queue.offer(PendingOrder.fromCart(reference, user.getId(), cart))) {
+			submissions.invalidate(reference);
+			rejected.increment();
+			return null;
+		}
+		return submission;
+	}
+
+	/** Returns {@code null} for unknown references and for ones that have expired. */
+	public OrderSubmission status(String reference) {
+		return submissions.get(reference);
+	}
+
+	public int getQueueDepth() {
+		return queue.size();
+	}
+
+	public int getRemainingCapacity() {
+		return queue.remainingCapacity();
+	}
+
+	public long getRejectedCount() {
+		return rejected.sum();
+	}
+
+	public long getWrittenCount() {
+		return written.sum();
+	}
+
+	public long getFailedCount() {
+		return failed.sum();
+	}
+
+	private void drain() {
+		List<PendingOrder> batch = new ArrayList<>(batchSize);
+		while (running || !queue.isEmpty()) {
+			try {
+				PendingOrder first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					continue;
+				}
+				batch.add(first);
+				queue.drainTo(batch, batchSize - 1);
+				write(batch);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} finally {
+				batch.clear();
+			}
+		}
+	}
+
+	private void write(List<PendingOrder> batch) {
+		List<Long> orderIds;
+		try {
+			orderIds = orderBatchWriter.write(batch);
+		} catch (RuntimeException e) {
+			logger.error("OrderSubmissionQueue::write - Failed to write {} orders", batch.size(), e);
+			for (PendingOrder order : batch) {
+				submissions.put(order.getReference(), OrderSubmission.failed(order.getReference()));
+			}
+			failed.add(batch.size());
+			return;
+		}
+		for (int i = 0; i < batch.size(); i++) {
+			String reference = batch.get(i).getReference();
+			submissions.put(reference, OrderSubmission.completed(reference, orderIds.get(i)));
+		}
+		written.add(batch.size());
+	}
+}
@@ -0,0 +1,94 @@
+package com.example.demo.services;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.CartLine;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.Money;
+
+/**
+ * Detached snapshot of a cart taken when an order is queued, so later cart edits do not
+ * change what gets written.
+ */
+public final class PendingOrder {
+
+	private final String reference;
+	private final long userId;
+	private final Instant placedAt;
+	private final Money total;
+	private final List<Line> lines;
+
+	PendingOrder(String reference, long userId, Instant placedAt, Money total, List<Line> lines) {
+		this.reference = reference;
+		this.userId = userId;
+		this.placedAt = placedAt;
+		this.total = total;
+		this.lines = lines;
+	}
+
+	static PendingOrder fromCart(String reference, long userId, Cart cart) {
+		List<Line> lines = new ArrayList<>();
+		if(cart.getItems() != null) {
+			for(CartLine line : cart.getItems()) {
+				Item item = line.getItem();
+				lines.add(new Line(item.getId(), item.getName(), item.getPrice(), line.getQuantity()));
+			}
+		}
+		return new PendingOrder(reference, userId, Instant.now(), cart.getTotal() == null ? Money.ZERO : cart.getTotal(),
+				Collections.unmodifiableList(lines));
+	}
+
+	public String getReference() {
+		return reference;
+	}
+
+	public long getUserId() {
+		return userId;
+	}
+
+	public Instant getPlacedAt() {
+		return placedAt;
+	}
+
+	public Money getTotal() {
+		return total;
+	}
+
+	public List<Line> getLines() {
+		return lines;
+	}
+
+	public static final class Line {
+		private final long itemId;
+		private final String name;
+		private final Money unitPrice;
+		private final int quantity;
+
+		Line(long itemId, String name, Money unitPrice, int quantity) {
+			this.itemId = itemId;
+			this.name = name;
+			this.unitPrice = unitPrice;
+			this.quantity = quantity;
+		}
+
+		public long getItemId() {
+			return itemId;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public Money getUnitPrice() {
+			return unitPrice;
+		}
+
+		public int getQuantity() {
+			return quantity;
+		}
+	}
+}
@@ -0,0 +1,204 @@
+package com.example.demo.services;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.model.persistence.Money;
+import com.example.demo.model.persistence.OrderLine;
+import com.example.demo.model.persistence.UserOrder;
+
+/**
+ * Maintains the {@code item_sales}, {@code user_sales} and {@code sales_bucket} rollups. Each
+ * write adds the new orders' totals to the affected rows inside the transaction that inserts
+ * the orders, so the rollups commit or roll back with them. Buckets are UTC days, whatever
+ * the server's time zone. {@link #rebuild()} recomputes everything from {@code user_order} and
+ * {@code order_line}.
+ */
+@Service
+public class SalesRollupService {
+
+	private final static Logger logger = LoggerFactory.getLogger(SalesRollupService.class);
+
+	private static final Rollup ITEM_SALES = new Rollup("item_sales", "item_id", "bigint", "units", "revenue");
+	private static final Rollup USER_SALES = new Rollup("user_sales", "user_id", "bigint", "orders", "revenue");
+	private static final Rollup SALES_BUCKETS = new Rollup("sales_bucket", "bucket_date", "date", "orders", "units", "revenue");
+
+	private static final int MAX_MERGE_ATTEMPTS = 3;
+
+	private final JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	public SalesRollupService(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void record(UserOrder order) {
+		Delta delta = new Delta();
+		delta.addOrder(order.getUser().getId(), order.getPlacedAt(), order.getTotal());
+		for (OrderLine line : order.getLines()) {
+			delta.addLine(line.getItemId(), order.getPlacedAt(), line.getUnitPrice(), line.getQuantity());
+		}
+		apply(delta);
+	}
+
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void record(List<PendingOrder> orders) {
+		Delta delta = new Delta();
+		for (PendingOrder order : orders) {
+			delta.addOrder(order.getUserId(), order.getPlacedAt(), order.getTotal());
+			for (PendingOrder.Line line : order.getLines()) {
+				delta.addLine(line.getItemId(), order.getPlacedAt(), line.getUnitPrice(), line.getQuantity());
+			}
+		}
+		apply(delta);
+	}
+
+	/**
+	 * Recomputes all rollups from the raw orders in one transaction. Orders committed while
+	 * this runs may be counted twice or not at all, so run it while the shop is quiet.
+	 */
+	@Transactional
+	public void rebuild() {
+		jdbcTemplate.update("delete from item_sales");
+		int items = jdbcTemplate.update("insert into item_sales (item_id, units, revenue) "
+				+ "select item_id, sum(quantity), sum(unit_price * quantity) from order_line group by item_id");
+		jdbcTemplate.update("delete from user_sales");
+		int users = jdbcTemplate.update("insert into user_sales (user_id, orders, revenue) "
+				+ "select user_id, count(*), sum(total) from user_order group by user_id");
+		jdbcTemplate.update("delete from sales_bucket");
+		// Grouped here rather than in SQL so the days match the incremental path.
+		Delta delta = new Delta();
+		jdbcTemplate.query("select o.placed_at, o.total, coalesce(l.units, 0) from user_order o "
+				+ "left join (select order_id, sum(quantity) as units from order_line group by order_id) l on l.order_id = o.id "
+				+ "where o.placed_at is not null", (RowCallbackHandler) rs -> {
+					BigDecimal total = rs.getBigDecimal(2);
+					delta.addDay(rs.getTimestamp(1).toInstant(), rs.getLong(3), total == null ? null : Money.of(total));
+				});
+		merge(SALES_BUCKETS, delta.buckets);
+		logger.info("SalesRollupService::rebuild - Rebuilt {} item, {} user and {} daily rollups", items, users, delta.buckets.size());
+	}
+
+	private void apply(Delta delta) {
+		merge(ITEM_SALES, delta.items);
+		merge(USER_SALES, delta.users);
+		merge(SALES_BUCKETS, delta.buckets);
+	}
+
+	/**
+	 * Adds to the rows with one {@code merge} on the caller's connection, creating the missing
+	 * ones. A statement that fails changes nothing, so when a concurrent order inserted one of
+	 * the keys first the merge runs again and now finds the row.
+	 */
+	private <K> void merge(Rollup rollup, Map<K, long[]> deltas) {
+		if (deltas.isEmpty()) {
+			return;
+		}
+		Object[] args = rollup.mergeArgs(deltas);
+		for (int attempt = 1; ; attempt++) {
+			try {
+				int merged = jdbcTemplate.update(rollup.merge, args);
+				if (merged != deltas.size()) {
+					throw new IllegalStateException("Merged " + merged + " of " + deltas.size() + " rows into " + rollup.table);
+				}
+				return;
+			} catch (DuplicateKeyException e) {
+				if (attempt == MAX_MERGE_ATTEMPTS) {
+					throw e;
+				}
+				logger.debug("SalesRollupService::merge - Concurrent insert into {}, merging again", rollup.table);
+			}
+		}
+	}
+
+	/**
+	 * SQL for one rollup table. The deltas are bound as one array per column and read back as
+	 * rows through H2's {@code table()} function. The last counter column holds money and is
+	 * summed in cents.
+	 */
+	private static final class Rollup {
+		private final String table;
+		private final String merge;
+
+		Rollup(String table, String keyColumn, String keyType, String... counters) {
+			this.table = table;
+			String columns = keyColumn + ", " + String.join(", ", counters);
+			StringBuilder source = new StringBuilder(keyColumn).append(" ").append(keyType).append(" = ?");
+			StringBuilder increments = new StringBuilder();
+			for (int i = 0; i < counters.length; i++) {
+				String counter = counters[i];
+				source.append(", ").append(counter).append(i == counters.length - 1 ? " decimal(19, 2)" : " bigint").append(" = ?");
+				increments.append(i == 0 ? "" : ", ").append(counter).append(" = t.").append(counter).append(" + s.").append(counter);
+			}
+			this.merge = "merge into " + table + " t using (select * from table(" + source + ")) s on t." + keyColumn + " = s." + keyColumn
+					+ " when matched then update set " + increments
+					+ " when not matched then insert (" + columns + ") values (s." + columns.replace(", ", ", s.") + ")";
+		}
+
+		<K> Object[] mergeArgs(Map<K, long[]> deltas) {
+			int width = deltas.values().iterator().next().length;
+			Object[][] columns = new Object[width + 1][deltas.size()];
+			int row = 0;
+			for (Map.Entry<K, long[]> delta : deltas.entrySet()) {
+				long[] values = delta.getValue();
+				columns[0][row] = delta.getKey();
+				for (int i = 0; i < width - 1; i++) {
+					columns[i + 1][row] = values[i];
+				}
+				columns[width][row] = Money.ofCents(values[width - 1]).toBigDecimal();
+				row++;
+			}
+			return columns;
+		}
+	}
+
+	/** Sums per row, keyed in sorted order so concurrent writers lock rows in the same order. */
+	private static final class Delta {
+		private final Map<Long, long[]> items = new TreeMap<>();
+		private final Map<Long, long[]> users = new TreeMap<>();
+		private final Map<LocalDate, long[]> buckets = new TreeMap<>();
+
+		void addOrder(long userId, Instant placedAt, Money total) {
+			long cents = total == null ? 0 : total.getCents();
+			long[] user = users.computeIfAbsent(userId, key -> new long[2]);
+			user[0]++;
+			user[1] += cents;
+			long[] bucket = buckets.computeIfAbsent(day(placedAt), key -> new long[3]);
+			bucket[0]++;
+			bucket[2] += cents;
+		}
+
+		void addDay(Instant placedAt, long units, Money total) {
+			long[] bucket = buckets.computeIfAbsent(day(placedAt), key -> new long[3]);
+			bucket[0]++;
+			bucket[1] += units;
+			bucket[2] += total == null ? 0 : total.getCents();
+		}
+
+		void addLine(long itemId, Instant placedAt, Money unitPrice, int quantity) {
+			long[] item = items.computeIfAbsent(itemId, key -> new long[2]);
+			item[0] += quantity;
+			item[1] += unitPrice.getCents() * quantity;
+			buckets.computeIfAbsent(day(placedAt), key -> new long[3])[1] += quantity;
+		}
+
+		private static LocalDate day(Instant instant) {
+			return instant.atOffset(ZoneOffset.UTC).toLocalDate();
+		}
+	}
+}
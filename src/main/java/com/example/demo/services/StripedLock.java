@@ -0,0 +1,44 @@
+package com.example.demo.services;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed set of locks shared by hashing the key, so contention on one key is serialized
+ * in-process without keeping a lock per key. Zero stripes disables locking.
+ */
+public class StripedLock {
+
+	private final Lock[] stripes;
+
+	public StripedLock(int stripes) {
+		if (stripes < 0) {
+			throw new IllegalArgumentException("stripes must not be negative");
+		}
+		this.stripes = new Lock[stripes];
+		for (int i = 0; i < stripes; i++) {
+			this.stripes[i] = new ReentrantLock();
+		}
+	}
+
+	public Lock get(Object key) {
+		if (stripes.length == 0) {
+			return NoOpLock.INSTANCE;
+		}
+		int hash = key.hashCode();
+		hash ^= (hash >>> 16);
+		return stripes[Math.floorMod(hash, stripes.length)];
+	}
+
+	private static final class NoOpLock extends ReentrantLock {
+		private static final NoOpLock INSTANCE = new NoOpLock();
+
+		@Override
+		public void lock() {
+		}
+
+		@Override
+		public void unlock() {
+		}
+	}
+}
@@ -0,0 +1,97 @@
+package com.example.demo.services;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.repositories.CartRepository;
+
+/**
+ * Writes every cart change through to the database. Each mutation runs in its own
+ * transaction under a lock striped by cart id, and {@link Cart}'s version column turns a
+ * concurrent write from another node into an {@link OptimisticLockingFailureException},
+ * retried a bounded number of times against a freshly loaded cart. Two writers inserting
+ * the same new line collide on the {@code cart_line} unique key before the version is
+ * checked, so that is retried too; any other integrity violation is a data error and is
+ * thrown as is.
+ */
+@Component
+@ConditionalOnProperty(name = "cart.write-behind.enabled", havingValue = "false", matchIfMissing = true)
+public class TransactionalCartStore implements CartStore {
+
+	private final static Logger logger = LoggerFactory.getLogger(TransactionalCartStore.class);
+
+	private final CartRepository cartRepository;
+	private final TransactionTemplate transactionTemplate;
+	private final StripedLock cartLocks;
+	private final int maxAttempts;
+
+	private final LongAdder conflicts = new LongAdder();
+
+	@Autowired
+	public TransactionalCartStore(CartRepository cartRepository, PlatformTransactionManager transactionManager,
+			@Value("${cart.lock.stripes:64}") int lockStripes,
+			@Value("${cart.retry.max-attempts:3}") int maxAttempts) {
+		this.cartRepository = cartRepository;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.cartLocks = new StripedLock(lockStripes);
+		this.maxAttempts = maxAttempts;
+	}
+
+	@Override
+	public Cart update(Long cartId, Consumer<Cart> mutation) {
+		Lock lock = cartLocks.get(cartId);
+		lock.lock();
+		try {
+			for (int attempt = 1; ; attempt++) {
+				try {
+					return transactionTemplate.execute(status -> {
+						Cart cart = cartRepository.findById(cartId)
+								.orElseThrow(() -> new IllegalStateException("Cart " + cartId + " does not exist"));
+						mutation.accept(cart);
+						cartRepository.save(cart);
+						return cart;
+					});
+				} catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+					if (e instanceof DataIntegrityViolationException
+							&& !DuplicateKeys.isDuplicateKey((DataIntegrityViolationException) e)) {
+						throw e;
+					}
+					conflicts.increment();
+					if (attempt >= maxAttempts) {
+						logger.warn("TransactionalCartStore::update - Giving up on cart {} after {} conflicting attempts", cartId, attempt);
+						throw new OptimisticLockingFailureException("Cart " + cartId + " is being modified concurrently", e);
+					}
+					logger.info("TransactionalCartStore::update - Version conflict on cart {}, retrying", cartId);
+				}
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public Cart current(Cart persistent) {
+		return persistent;
+	}
+
+	@Override
+	public void flush(Long cartId) {
+	}
+
+	public long getConflictCount() {
+		return conflicts.sum();
+	}
+}
@@ -0,0 +1,340 @@
+package com.example.demo.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.model.persistence.Sequences;
+import com.example.demo.model.requests.CreateUserRequest;
+import com.example.demo.model.responses.UserImportReport;
+import com.example.demo.model.responses.UserImportReport.Row;
+import com.example.demo.model.responses.UserImportReport.Status;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Creates users in bulk from a JSON array or a CSV stream. Input is read in chunks of
+ * {@code user.import.batch-size} rows. Each chunk is validated, hashed in parallel, and
+ * inserted as one JDBC batch of carts and one of users in a single transaction.
+ * <p>
+ * Hashing runs on its own pool of {@code user.import.hash-threads}, not on the login pool, so
+ * an import neither rejects logins nor is rejected by them. The default leaves one core free.
+ */
+@Service
+public class UserImportService {
+
+	private final static Logger logger = LoggerFactory.getLogger(UserImportService.class);
+
+	private static final String INSERT_CART = "insert into cart (id, total, version) values (?, ?, 0)";
+	private static final String INSERT_USER = "insert into user (id, username, password, cart_id) values (?, ?, ?, ?)";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final ObjectMapper objectMapper;
+	private final BCryptPasswordEncoder passwordEncoder;
+	private final ExecutorService hashers;
+	private final int batchSize;
+
+	@Autowired
+	public UserImportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+			ObjectMapper objectMapper,
+			@Value("${security.bcrypt.strength:10}") int strength,
+			@Value("${user.import.hash-threads:0}") int hashThreads,
+			@Value("${user.import.batch-size:500}") int batchSize) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.objectMapper = objectMapper;
+		this.passwordEncoder = new BCryptPasswordEncoder(strength);
+		this.batchSize = batchSize;
+		int threads = hashThreads > 0 ? hashThreads : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+		AtomicInteger threadNumber = new AtomicInteger();
+		this.hashers = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "user-import-hash-" + threadNumber.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	@PreDestroy
+	public void stop() {
+		hashers.shutdownNow();
+	}
+
+	/** Imports a JSON array of objects with {@code username}, {@code password} and optional {@code confirmPassword}. */
+	public UserImportReport importJson(InputStream json) throws IOException {
+		MappingIterator<CreateUserRequest> rows = objectMapper.readerFor(CreateUserRequest.class).readValues(json);
+		return importRows(new Iterator<CreateUserRequest>() {
+			@Override
+			public boolean hasNext() {
+				try {
+					return rows.hasNextValue();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+
+			@Override
+			public CreateUserRequest next() {
+				try {
+					return rows.nextValue();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Imports CSV with a header row naming {@code username} and {@code password} columns and
+	 * optionally {@code confirmPassword}. Fields may be double-quoted; quoted fields may not
+	 * span lines.
+	 *
+	 * @throws IllegalArgumentException if the header lacks a required column
+	 */
+	public UserImportReport importCsv(InputStream csv) throws IOException {
+		BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8));
+		String header = reader.readLine();
+		if (header == null) {
+			throw new IllegalArgumentException("CSV input is empty");
+		}
+		List<String> columns = parseCsvLine(header).stream()
+				.map(column -> column.trim().toLowerCase(Locale.ROOT))
+				.collect(Collectors.toList());
+		int username = columns.indexOf("username");
+		int password = columns.indexOf("password");
+		int confirmPassword = columns.indexOf("confirmpassword");
+		if (username < 0 || password < 0) {
+			throw new IllegalArgumentException("CSV header must name username and password columns");
+		}
+		return importRows(new Iterator<CreateUserRequest>() {
+			private String line = nextLine();
+
+			@Override
+			public boolean hasNext() {
+				return line != null;
+			}
+
+			@Override
+			public CreateUserRequest next() {
+				if (line == null) {
+					throw new NoSuchElementException();
+				}
+				List<String> fields = parseCsvLine(line);
+				line = nextLine();
+				return new CreateUserRequest(field(fields, username), field(fields, password), field(fields, confirmPassword));
+			}
+
+			private String nextLine() {
+				try {
+					String next = reader.readLine();
+					while (next != null && next.trim().isEmpty()) {
+						next = reader.readLine();
+					}
+					return next;
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+		});
+	}
+
+	private UserImportReport importRows(Iterator<CreateUserRequest> rows) {
+		UserImportReport report = new UserImportReport();
+		Set<String> seen = new HashSet<>();
+		List<CreateUserRequest> chunk = new ArrayList<>(batchSize);
+		int firstRow = 1;
+		try {
+			while (rows.hasNext()) {
+				chunk.add(rows.next());
+				if (chunk.size() == batchSize) {
+					importChunk(firstRow, chunk, seen, report);
+					firstRow += chunk.size();
+					chunk.clear();
+				}
+			}
+		} catch (UncheckedIOException e) {
+			report.setError("Input could not be read after row " + (firstRow + chunk.size() - 1) + ": " + message(e.getCause()));
+		}
+		if (!chunk.isEmpty()) {
+			importChunk(firstRow, chunk, seen, report);
+		}
+		logger.info("UserImportService::importRows - Created {} users, rejected {}", report.getCreated(), report.getRejected());
+		return report;
+	}
+
+	private void importChunk(int firstRow, List<CreateUserRequest> chunk, Set<String> seen, UserImportReport report) {
+		Row[] results = new Row[chunk.size()];
+		List<Integer> accepted = new ArrayList<>();
+		for (int i = 0; i < chunk.size(); i++) {
+			CreateUserRequest request = chunk.get(i);
+			String invalid = validate(request);
+			if (invalid != null) {
+				results[i] = Row.rejected(firstRow + i, request.getUsername(), Status.INVALID, invalid);
+			} else if (!seen.add(request.getUsername())) {
+				results[i] = Row.rejected(firstRow + i, request.getUsername(), Status.DUPLICATE, "username appears earlier in the input");
+			} else {
+				accepted.add(i);
+			}
+		}
+		Set<String> existing = existingUsernames(accepted.stream().map(i -> chunk.get(i).getUsername()).collect(Collectors.toList()));
+		accepted.removeIf(i -> {
+			if (existing.contains(chunk.get(i).getUsername())) {
+				results[i] = Row.rejected(firstRow + i, chunk.get(i).getUsername(), Status.DUPLICATE, "username already exists");
+				return true;
+			}
+			return false;
+		});
+
+		List<String> hashes = hashAll(accepted.stream().map(i -> chunk.get(i).getPassword()).collect(Collectors.toList()));
+		List<String> usernames = accepted.stream().map(i -> chunk.get(i).getUsername()).collect(Collectors.toList());
+		List<Long> ids;
+		try {
+			ids = transactionTemplate.execute(status -> insert(usernames, hashes));
+		} catch (DataIntegrityViolationException e) {
+			// A concurrent sign-up took one of the names; insert row by row to find it.
+			ids = new ArrayList<>();
+			for (int j = 0; j < usernames.size(); j++) {
+				List<String> username = Collections.singletonList(usernames.get(j));
+				List<String> hash = Collections.singletonList(hashes.get(j));
+				try {
+					ids.add(transactionTemplate.execute(status -> insert(username, hash)).get(0));
+				} catch (DataIntegrityViolationException duplicate) {
+					ids.add(null);
+				}
+			}
+		}
+		for (int j = 0; j < accepted.size(); j++) {
+			int i = accepted.get(j);
+			results[i] = ids.get(j) == null
+					? Row.rejected(firstRow + i, usernames.get(j), Status.DUPLICATE, "username already exists")
+					: Row.created(firstRow + i, usernames.get(j), ids.get(j));
+		}
+		Arrays.stream(results).forEach(report::add);
+	}
+
+	private static String validate(CreateUserRequest request) {
+		if (request.getUsername() == null || request.getUsername().trim().isEmpty()) {
+			return "username is required";
+		}
+		if (!CreateUserRequest.isPasswordValid(request.getPassword())) {
+			return "password must be at least 6 characters";
+		}
+		String confirmPassword = request.getConfirmPassword();
+		if (confirmPassword != null && !confirmPassword.isEmpty() && !confirmPassword.equals(request.getPassword())) {
+			return "confirmPassword does not match password";
+		}
+		return null;
+	}
+
+	private Set<String> existingUsernames(List<String> usernames) {
+		if (usernames.isEmpty()) {
+			return Collections.emptySet();
+		}
+		String placeholders = String.join(", ", Collections.nCopies(usernames.size(), "?"));
+		return new HashSet<>(jdbcTemplate.queryForList("select username from user where username in (" + placeholders + ")",
+				String.class, usernames.toArray()));
+	}
+
+	private List<String> hashAll(List<String> passwords) {
+		List<Callable<String>> tasks = passwords.stream()
+				.map(password -> (Callable<String>) () -> passwordEncoder.encode(password))
+				.collect(Collectors.toList());
+		List<String> hashes = new ArrayList<>(passwords.size());
+		try {
+			for (Future<String> hash : hashers.invokeAll(tasks)) {
+				hashes.add(hash.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while hashing imported passwords", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Could not hash imported password", e.getCause());
+		}
+		return hashes;
+	}
+
+	/** Returns the new user ids, drawn from the user sequence, in the order of {@code usernames}. */
+	private List<Long> insert(List<String> usernames, List<String> hashes) {
+		List<Long> cartIds = Sequences.nextIds(jdbcTemplate, Sequences.CART, usernames.size());
+		List<Long> userIds = Sequences.nextIds(jdbcTemplate, Sequences.USER, usernames.size());
+		List<Object[]> carts = new ArrayList<>(usernames.size());
+		List<Object[]> users = new ArrayList<>(usernames.size());
+		for (int i = 0; i < usernames.size(); i++) {
+			carts.add(new Object[] {cartIds.get(i), BigDecimal.ZERO});
+			users.add(new Object[] {userIds.get(i), usernames.get(i), hashes.get(i), cartIds.get(i)});
+		}
+		jdbcTemplate.batchUpdate(INSERT_CART, carts);
+		jdbcTemplate.batchUpdate(INSERT_USER, users);
+		return userIds;
+	}
+
+	private static String field(List<String> fields, int index) {
+		return index >= 0 && index < fields.size() ? fields.get(index) : null;
+	}
+
+	private static String message(Throwable cause) {
+		return cause instanceof JsonProcessingException ? ((JsonProcessingException) cause).getOriginalMessage() : cause.getMessage();
+	}
+
+	static List<String> parseCsvLine(String line) {
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (quoted) {
+				if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+					field.append('"');
+					i++;
+				} else if (c == '"') {
+					quoted = false;
+				} else {
+					field.append(c);
+				}
+			} else if (c == '"') {
+				quoted = true;
+			} else if (c == ',') {
+				fields.add(field.toString());
+				field.setLength(0);
+			} else {
+				field.append(c);
+			}
+		}
+		fields.add(field.toString());
+		return fields;
+	}
+}
@@ -0,0 +1,268 @@
+package com.example.demo.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.CartLine;
+import com.example.demo.model.persistence.Money;
+import com.example.demo.model.persistence.Sequences;
+import com.example.demo.model.persistence.repositories.CartRepository;
+
+/**
+ * Keeps carts in memory once touched and merges repeated edits; dirty carts are written
+ * to the database in JDBC batches on a timer, when an order is submitted and on shutdown.
+ * The in-memory copy is authoritative, so this mode is only for single-instance deployments.
+ */
+@Component
+@ConditionalOnProperty(name = "cart.write-behind.enabled", havingValue = "true")
+public class WriteBehindCartStore implements CartStore {
+
+	private final static Logger logger = LoggerFactory.getLogger(WriteBehindCartStore.class);
+
+	private final CartRepository cartRepository;
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final StripedLock cartLocks;
+	private final long flushIntervalMillis;
+	private final int maxCarts;
+
+	private final Map<Long, Entry> carts = new ConcurrentHashMap<>();
+	private final LongAdder flushedCarts = new LongAdder();
+	private final LongAdder flushes = new LongAdder();
+	private ScheduledExecutorService scheduler;
+
+	@Autowired
+	public WriteBehindCartStore(CartRepository cartRepository, JdbcTemplate jdbcTemplate,
+			PlatformTransactionManager transactionManager,
+			@Value("${cart.lock.stripes:64}") int lockStripes,
+			@Value("${cart.write-behind.flush-interval-ms:1000}") long flushIntervalMillis,
+			@Value("${cart.write-behind.max-carts:10000}") int maxCarts) {
+		this.cartRepository = cartRepository;
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.cartLocks = new StripedLock(Math.max(1, lockStripes));
+		this.flushIntervalMillis = flushIntervalMillis;
+		this.maxCarts = maxCarts;
+	}
+
+	@PostConstruct
+	public void start() {
+		scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "cart-write-behind");
+			thread.setDaemon(true);
+			return thread;
+		});
+		scheduler.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	@PreDestroy
+	public void stop() throws InterruptedException {
+		scheduler.shutdown();
+		scheduler.awaitTermination(flushIntervalMillis * 2, TimeUnit.MILLISECONDS);
+		flushAll();
+	}
+
+	@Override
+	public Cart update(Long cartId, Consumer<Cart> mutation) {
+		Lock lock = cartLocks.get(cartId);
+		lock.lock();
+		try {
+			Entry entry = carts.get(cartId);
+			if (entry == null) {
+				entry = load(cartId);
+				carts.put(cartId, entry);
+			}
+			mutation.accept(entry.cart);
+			entry.dirty = true;
+			return copy(entry.cart);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public Cart current(Cart persistent) {
+		Lock lock = cartLocks.get(persistent.getId());
+		lock.lock();
+		try {
+			Entry entry = carts.get(persistent.getId());
+			return entry == null ? persistent : copy(entry.cart);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public void flush(Long cartId) {
+		flush(Collections.singleton(cartId));
+	}
+
+	public void flushAll() {
+		flush(new ArrayList<>(carts.keySet()));
+	}
+
+	public int getDirtyCount() {
+		return (int) carts.values().stream().filter(entry -> entry.dirty).count();
+	}
+
+	public long getFlushedCartCount() {
+		return flushedCarts.sum();
+	}
+
+	public long getFlushCount() {
+		return flushes.sum();
+	}
+
+	private void flushQuietly() {
+		try {
+			flushAll();
+		} catch (RuntimeException e) {
+			logger.error("WriteBehindCartStore::flushQuietly - Flush failed, carts stay dirty", e);
+		}
+	}
+
+	private synchronized void flush(Collection<Long> cartIds) {
+		List<Cart> snapshots = new ArrayList<>();
+		for (Long cartId : cartIds) {
+			Lock lock = cartLocks.get(cartId);
+			lock.lock();
+			try {
+				Entry entry = carts.get(cartId);
+				if (entry != null && entry.dirty) {
+					snapshots.add(copy(entry.cart));
+					entry.dirty = false;
+				}
+			} finally {
+				lock.unlock();
+			}
+		}
+		if (!snapshots.isEmpty()) {
+			try {
+				write(snapshots);
+			} catch (RuntimeException e) {
+				snapshots.forEach(snapshot -> markDirty(snapshot.getId()));
+				throw e;
+			}
+			flushes.increment();
+			flushedCarts.add(snapshots.size());
+		}
+		evictCleanCarts();
+	}
+
+	private void write(List<Cart> snapshots) {
+		List<Object[]> totals = new ArrayList<>();
+		List<Object[]> cartIds = new ArrayList<>();
+		for (Cart cart : snapshots) {
+			totals.add(new Object[] {cart.getTotal().toBigDecimal(), cart.getId()});
+			cartIds.add(new Object[] {cart.getId()});
+		}
+		int lineCount = snapshots.stream().mapToInt(cart -> cart.getItems().size()).sum();
+		transactionTemplate.execute(status -> {
+			Iterator<Long> lineIds = Sequences.nextIds(jdbcTemplate, Sequences.CART_LINE, lineCount).iterator();
+			List<Object[]> lines = new ArrayList<>();
+			for (Cart cart : snapshots) {
+				for (CartLine line : cart.getItems()) {
+					lines.add(new Object[] {lineIds.next(), cart.getId(), line.getItem().getId(), line.getQuantity()});
+				}
+			}
+			jdbcTemplate.batchUpdate("update cart set total = ?, version = version + 1 where id = ?", totals);
+			jdbcTemplate.batchUpdate("delete from cart_line where cart_id = ?", cartIds);
+			jdbcTemplate.batchUpdate("insert into cart_line (id, cart_id, item_id, quantity) values (?, ?, ?, ?)", lines);
+			return null;
+		});
+	}
+
+	private void markDirty(Long cartId) {
+		Lock lock = cartLocks.get(cartId);
+		lock.lock();
+		try {
+			Entry entry = carts.get(cartId);
+			if (entry != null) {
+				entry.dirty = true;
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void evictCleanCarts() {
+		if (carts.size() <= maxCarts) {
+			return;
+		}
+		for (Long cartId : new ArrayList<>(carts.keySet())) {
+			if (carts.size() <= maxCarts) {
+				return;
+			}
+			Lock lock = cartLocks.get(cartId);
+			lock.lock();
+			try {
+				Entry entry = carts.get(cartId);
+				if (entry != null && !entry.dirty) {
+					carts.remove(cartId);
+				}
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	private Entry load(Long cartId) {
+		return transactionTemplate.execute(status -> {
+			Cart cart = cartRepository.findById(cartId)
+					.orElseThrow(() -> new IllegalStateException("Cart " + cartId + " does not exist"));
+			Hibernate.initialize(cart.getItems());
+			return new Entry(copy(cart));
+		});
+	}
+
+	private static Cart copy(Cart source) {
+		Cart cart = new Cart();
+		cart.setId(source.getId());
+		cart.setUser(source.getUser());
+		cart.setVersion(source.getVersion());
+		cart.setTotal(source.getTotal() == null ? Money.ZERO : source.getTotal());
+		List<CartLine> lines = new ArrayList<>();
+		if (source.getItems() != null) {
+			for (CartLine line : source.getItems()) {
+				lines.add(new CartLine(cart, line.getItem(), line.getQuantity()));
+			}
+		}
+		cart.setItems(lines);
+		return cart;
+	}
+
+	private static final class Entry {
+		private final Cart cart;
+		private volatile boolean dirty;
+
+		private Entry(Cart cart) {
+			this.cart = cart;
+		}
+	}
+}
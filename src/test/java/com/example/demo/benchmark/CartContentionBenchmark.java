@@ -0,0 +1,91 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.SareetaApplication;
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.CartRepository;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.requests.CartAction;
+import com.example.demo.services.CartService;
+import com.example.demo.services.TransactionalCartStore;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Many threads adding to one cart through {@link CartService}. At the end of the trial the
+ * persisted quantity is compared with the number of acknowledged adds; any difference is a
+ * lost update. Run with and without the in-process striped lock.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class CartContentionBenchmark {
+
+    private static final String USERNAME = "contention";
+    private static final long ITEM_ID = 1L;
+
+    @Param({"0", "64"})
+    private int lockStripes;
+
+    private ConfigurableApplicationContext context;
+    private CartService cartService;
+    private Long cartId;
+
+    private final LongAdder acknowledged = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(SareetaApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:cart-contention;DB_CLOSE_DELAY=-1",
+                        "logging.file=",
+                        "logging.level.root=WARN",
+                        "cart.lock.stripes=" + lockStripes,
+                        "cart.retry.max-attempts=20")
+                .run();
+        cartService = context.getBean(CartService.class);
+
+        User user = new User();
+        user.setUsername(USERNAME);
+        user.setPassword("not-a-real-hash");
+        user.setCart(new Cart());
+        cartId = context.getBean(UserRepository.class).save(user).getCart().getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+        int persisted = transactionTemplate.execute(status -> {
+            Item item = context.getBean(ItemRepository.class).findById(ITEM_ID).get();
+            return context.getBean(CartRepository.class).findById(cartId).get().getQuantity(item);
+        });
+        System.out.printf("%nlockStripes=%d acknowledged=%d rejected=%d versionConflicts=%d persisted=%d lostUpdates=%d%n",
+                lockStripes, acknowledged.sum(), rejected.sum(), context.getBean(TransactionalCartStore.class).getConflictCount(),
+                persisted, acknowledged.sum() - persisted);
+        context.close();
+    }
+
+    @Benchmark
+    public void addToSharedCart() {
+        try {
+            cartService.modify(USERNAME, ITEM_ID, 1, CartAction.ADD);
+            acknowledged.increment();
+        } catch (OptimisticLockingFailureException e) {
+            rejected.increment();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.Money;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.UserOrder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory cart edits and order creation at {@code cartSize} distinct lines. Each edit
+ * benchmark adds and then removes, so the cart keeps its size across invocations: one unit
+ * of an item already in the cart, or a whole line for an item that is not.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartOperationsBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    private int cartSize;
+
+    private Cart cart;
+    private Item existingItem;
+    private Item newItem;
+
+    @Setup
+    public void setup() {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("benchmark-user");
+        cart = new Cart();
+        cart.setId(1L);
+        cart.setUser(user);
+        user.setCart(cart);
+        for (int i = 1; i <= cartSize; i++) {
+            cart.addItem(item(i), 1 + i % 3);
+        }
+        existingItem = item(cartSize / 2 + 1);
+        newItem = item(cartSize + 1);
+    }
+
+    @Benchmark
+    public Cart addAndRemoveUnit() {
+        cart.addItem(existingItem, 1);
+        cart.removeItem(existingItem, 1);
+        return cart;
+    }
+
+    @Benchmark
+    public Cart addAndRemoveLine() {
+        cart.addItem(newItem, 1);
+        cart.removeItem(newItem, 1);
+        return cart;
+    }
+
+    @Benchmark
+    public UserOrder createOrderFromCart() {
+        return UserOrder.createFromCart(cart);
+    }
+
+    private static Item item(int id) {
+        Item item = new Item();
+        item.setId((long) id);
+        item.setName("Item " + id);
+        item.setPrice(Money.ofCents(100 + id));
+        item.setDescription("Item " + id);
+        return item;
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.SareetaApplication;
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.OrderLine;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.services.OrderService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Insert cost through JPA: a signup wave of {@code usersPerOp} users with their carts saved in
+ * one transaction, and an order of {@code linesPerOrder} lines placed through
+ * {@link OrderService}. {@code batchSize} is Hibernate's JDBC batch size; with identity ids
+ * Hibernate cannot batch inserts whatever it is set to. In-memory H2 has no network round trip,
+ * so the number of statements Hibernate prepares per operation, printed at the end of the trial,
+ * shows the difference more reliably than the throughput does. When batching is on, each
+ * prepared insert goes to the database as one batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 8, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class InsertThroughputBenchmark {
+
+    private static final int USERS_PER_OP = 50;
+    private static final int LINES_PER_ORDER = 20;
+
+    @Param({"1", "50"})
+    private int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private OrderService orderService;
+    private TransactionTemplate transactionTemplate;
+    private User buyer;
+    private Item item;
+    private Statistics statistics;
+    private final AtomicLong usernames = new AtomicLong();
+    private final LongAdder operations = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(SareetaApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:insert-throughput-" + batchSize + ";DB_CLOSE_DELAY=-1",
+                        "logging.file=",
+                        "logging.level.root=WARN",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                        "spring.jpa.properties.hibernate.generate_statistics=true")
+                .run();
+        userRepository = context.getBean(UserRepository.class);
+        orderService = context.getBean(OrderService.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        item = context.getBean(ItemRepository.class).findById(1L).get();
+        buyer = newUser();
+        userRepository.save(buyer);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%nbatchSize=%d operations=%d statements=%d statementsPerOperation=%.2f%n",
+                batchSize, operations.sum(), statistics.getPrepareStatementCount(),
+                (double) statistics.getPrepareStatementCount() / operations.sum());
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(USERS_PER_OP)
+    public Object signup() {
+        List<User> users = new ArrayList<>(USERS_PER_OP);
+        for (int i = 0; i < USERS_PER_OP; i++) {
+            users.add(newUser());
+        }
+        operations.add(USERS_PER_OP);
+        return transactionTemplate.execute(status -> userRepository.saveAll(users));
+    }
+
+    @Benchmark
+    public Object submitOrder() {
+        UserOrder order = new UserOrder();
+        order.setUser(buyer);
+        List<OrderLine> lines = new ArrayList<>(LINES_PER_ORDER);
+        for (int i = 0; i < LINES_PER_ORDER; i++) {
+            lines.add(new OrderLine(order, item.getId(), item.getName(), item.getPrice(), 1));
+        }
+        order.setLines(lines);
+        order.setTotal(item.getPrice().times(LINES_PER_ORDER));
+        order.setPlacedAt(Instant.now());
+        operations.increment();
+        return transactionTemplate.execute(status -> orderService.place(order));
+    }
+
+    private User newUser() {
+        User user = new User();
+        user.setUsername("insert-" + usernames.incrementAndGet());
+        user.setPassword("not-a-real-hash-" + usernames.get());
+        user.setCart(new Cart());
+        return user;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.Money;
+import com.example.demo.services.ItemSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link ItemSearchIndex} with the {@code LIKE '%term%'} query it replaces,
+ * over a generated catalog in an in-memory H2 database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemSearchBenchmark {
+
+    private static final String[] ADJECTIVES = {
+            "round", "square", "blue", "red", "large", "small", "heavy", "light", "smart", "classic"
+    };
+    private static final String[] NOUNS = {
+            "widget", "gadget", "lamp", "chair", "table", "kettle", "speaker", "bottle", "clock", "brush"
+    };
+
+    @Param({"100000"})
+    private int itemCount;
+
+    @Param({"widget", "kettle", "teapot"})
+    private String query;
+
+    private static final int LIMIT = 20;
+
+    private ItemSearchIndex index;
+    private Connection connection;
+    private PreparedStatement likeQuery;
+
+    @Setup
+    public void setup() throws SQLException {
+        List<Item> items = generateItems(itemCount);
+
+        index = new ItemSearchIndex();
+        index.indexAll(items);
+
+        connection = DriverManager.getConnection("jdbc:h2:mem:item-search-benchmark;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table if exists item");
+            statement.execute("create table item (id bigint primary key, name varchar(255) not null, "
+                    + "price decimal(19, 2) not null, description varchar(255) not null)");
+        }
+        try (PreparedStatement insert = connection.prepareStatement(
+                "insert into item (id, name, price, description) values (?, ?, ?, ?)")) {
+            for (Item item : items) {
+                insert.setLong(1, item.getId());
+                insert.setString(2, item.getName());
+                insert.setBigDecimal(3, item.getPrice().toBigDecimal());
+                insert.setString(4, item.getDescription());
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        likeQuery = connection.prepareStatement("select id, name, price, description from item "
+                + "where lower(name) like ? or lower(description) like ? limit ?");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        likeQuery.close();
+        connection.close();
+    }
+
+    @Benchmark
+    public List<Item> invertedIndex() {
+        return index.search(query, LIMIT);
+    }
+
+    @Benchmark
+    public List<Item> sqlLike() throws SQLException {
+        String pattern = "%" + query.toLowerCase() + "%";
+        likeQuery.setString(1, pattern);
+        likeQuery.setString(2, pattern);
+        likeQuery.setInt(3, LIMIT);
+        List<Item> items = new ArrayList<>();
+        try (ResultSet rs = likeQuery.executeQuery()) {
+            while (rs.next()) {
+                Item item = new Item();
+                item.setId(rs.getLong(1));
+                item.setName(rs.getString(2));
+                item.setPrice(Money.of(rs.getBigDecimal(3)));
+                item.setDescription(rs.getString(4));
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    private static List<Item> generateItems(int count) {
+        Random random = new Random(42);
+        List<Item> items = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            String adjective = ADJECTIVES[random.nextInt(ADJECTIVES.length)];
+            String noun = NOUNS[random.nextInt(NOUNS.length)];
+            Item item = new Item();
+            item.setId((long) i);
+            item.setName(adjective + " " + noun + " " + i);
+            item.setDescription("A " + ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + noun
+                    + " for everyday use");
+            item.setPrice(Money.ofCents(100 + random.nextInt(10_000)));
+            items.add(item);
+        }
+        return items;
+    }
+}
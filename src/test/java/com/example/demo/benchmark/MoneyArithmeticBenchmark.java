@@ -0,0 +1,78 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.model.persistence.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays the same sequence of cart adds and removes against a {@link BigDecimal} total,
+ * as {@code Cart} used to keep it, and against a {@link Money} total.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoneyArithmeticBenchmark {
+
+    @Param({"1000"})
+    private int operationCount;
+
+    private BigDecimal[] decimalPrices;
+    private Money[] moneyPrices;
+    private int[] priceIndexes;
+    private int[] quantities;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        decimalPrices = new BigDecimal[64];
+        moneyPrices = new Money[decimalPrices.length];
+        for (int i = 0; i < decimalPrices.length; i++) {
+            long cents = 99 + random.nextInt(50_000);
+            decimalPrices[i] = BigDecimal.valueOf(cents, 2);
+            moneyPrices[i] = Money.ofCents(cents);
+        }
+        priceIndexes = new int[operationCount];
+        quantities = new int[operationCount];
+        for (int i = 0; i < operationCount; i++) {
+            priceIndexes[i] = random.nextInt(decimalPrices.length);
+            // Mostly adds, with one removal in four.
+            quantities[i] = (random.nextInt(4) == 0 ? -1 : 1) * (1 + random.nextInt(3));
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalTotal() {
+        BigDecimal total = new BigDecimal(0);
+        for (int i = 0; i < operationCount; i++) {
+            BigDecimal price = decimalPrices[priceIndexes[i]];
+            int quantity = quantities[i];
+            if (quantity > 0) {
+                total = total.add(price.multiply(BigDecimal.valueOf(quantity)));
+            } else {
+                total = total.subtract(price.multiply(BigDecimal.valueOf(-quantity)));
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Money moneyTotal() {
+        Money total = Money.ZERO;
+        for (int i = 0; i < operationCount; i++) {
+            Money price = moneyPrices[priceIndexes[i]];
+            int quantity = quantities[i];
+            if (quantity > 0) {
+                total = total.plus(price, quantity);
+            } else {
+                total = total.minus(price, -quantity);
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.Money;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.responses.CartResponse;
+import com.example.demo.model.responses.OrderResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializes the same cart and order as the entities the controllers used to return and as
+ * the flat response projections, and a catalog item as the item endpoints return it. Payload sizes are printed once per trial. The graphs are
+ * built in memory, so the timings leave out the lazy loads the entity output also caused.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseSerializationBenchmark {
+
+    @Param({"5", "50"})
+    private int lineCount;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Item item;
+    private Cart cart;
+    private UserOrder order;
+
+    @Setup
+    public void setup() throws JsonProcessingException {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("benchmark-user");
+        user.setPassword("$2a$10$abcdefghijklmnopqrstuuJ0cN6SxUaZ0r9V5X7w2v0kq9y7bW0Lm");
+        cart = new Cart();
+        cart.setId(1L);
+        cart.setUser(user);
+        user.setCart(cart);
+        for (int i = 1; i <= lineCount; i++) {
+            Item item = new Item();
+            item.setId((long) i);
+            item.setName("Item " + i);
+            item.setPrice(Money.ofCents(100 + i));
+            item.setDescription("A description long enough to resemble a real catalog entry for item " + i);
+            cart.addItem(item, 1 + i % 3);
+            this.item = item;
+        }
+        order = UserOrder.createFromCart(cart);
+        order.setId(1L);
+
+        System.out.printf("%nlineCount=%d cartEntityBytes=%d cartResponseBytes=%d orderEntityBytes=%d orderResponseBytes=%d%n",
+                lineCount, cartEntity().length, cartResponse().length, orderEntity().length, orderResponse().length);
+    }
+
+    @Benchmark
+    public byte[] itemEntity() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(item);
+    }
+
+    @Benchmark
+    public byte[] cartEntity() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(cart);
+    }
+
+    @Benchmark
+    public byte[] cartResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(CartResponse.from(cart));
+    }
+
+    @Benchmark
+    public byte[] orderEntity() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public byte[] orderResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(OrderResponse.from(order));
+    }
+}
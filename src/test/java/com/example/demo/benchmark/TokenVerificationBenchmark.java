@@ -0,0 +1,90 @@
+package com.example.demo.benchmark;
+
+import com.auth0.jwt.JWT;
+import com.example.demo.security.Constants;
+import com.example.demo.security.CustomBasicAuthenticationFilter;
+import com.example.demo.security.CustomUserNamePasswordFilter;
+import com.example.demo.security.TokenVerifier;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.servlet.FilterChain;
+import java.util.concurrent.TimeUnit;
+
+import static com.auth0.jwt.algorithms.Algorithm.HMAC512;
+
+/**
+ * Per-request cost of {@link CustomBasicAuthenticationFilter}: building a verifier for every
+ * request as the filter used to, one shared verifier, and the shared verifier behind the
+ * verified-token cache. Requests cycle through {@code tokenCount} distinct tokens. Also signs
+ * the login token as {@link CustomUserNamePasswordFilter} does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenVerificationBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    @Param({"1", "1000"})
+    private int tokenCount;
+
+    private String[] headers;
+    private CustomBasicAuthenticationFilter sharedFilter;
+    private CustomBasicAuthenticationFilter cachedFilter;
+    private int next;
+
+    @Setup
+    public void setup() {
+        headers = new String[tokenCount];
+        for (int i = 0; i < tokenCount; i++) {
+            headers[i] = Constants.TOKEN_PREFIX + CustomUserNamePasswordFilter.createToken("user" + i, (long) i, (long) i);
+        }
+        sharedFilter = new CustomBasicAuthenticationFilter(authentication -> authentication, new TokenVerifier(0, 60));
+        cachedFilter = new CustomBasicAuthenticationFilter(authentication -> authentication, new TokenVerifier(10_000, 60));
+    }
+
+    @Benchmark
+    public String createLoginToken() {
+        return CustomUserNamePasswordFilter.createToken("benchmark-user", 1L, 1L);
+    }
+
+    @Benchmark
+    public Object rebuildVerifierPerRequest() {
+        String token = nextHeader().replace(Constants.TOKEN_PREFIX, "");
+        return JWT.require(HMAC512(Constants.SECRET.getBytes()))
+                .build()
+                .verify(token)
+                .getSubject();
+    }
+
+    @Benchmark
+    public Object sharedVerifier() throws Exception {
+        return filter(sharedFilter);
+    }
+
+    @Benchmark
+    public Object cachedVerifier() throws Exception {
+        return filter(cachedFilter);
+    }
+
+    private Object filter(CustomBasicAuthenticationFilter filter) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(Constants.HEADER_STRING, nextHeader());
+        filter.doFilter(request, new MockHttpServletResponse(), NO_OP_CHAIN);
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        SecurityContextHolder.clearContext();
+        return principal;
+    }
+
+    private String nextHeader() {
+        String header = headers[next];
+        next = next + 1 == headers.length ? 0 : next + 1;
+        return header;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.demo.cache;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class BoundedCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedEntryWhenFull() {
+        BoundedCache<String, String> cache = new BoundedCache<>(2, 1, TimeUnit.MINUTES, clock::get);
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.get("a");
+        cache.put("c", "C");
+
+        assertEquals("A", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals("C", cache.get("c"));
+        assertEquals(1, cache.stats().getEvictions());
+    }
+
+    @Test
+    public void shouldExpireEntriesAfterTtl() {
+        BoundedCache<String, String> cache = new BoundedCache<>(2, 10, TimeUnit.NANOSECONDS, clock::get);
+        cache.put("a", "A");
+        clock.addAndGet(10);
+
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void shouldCountHitsAndMisses() {
+        BoundedCache<String, String> cache = new BoundedCache<>(2, 1, TimeUnit.MINUTES, clock::get);
+        cache.get("a", key -> "A");
+        cache.get("a", key -> "other");
+
+        BoundedCache.Stats stats = cache.stats();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(1, stats.getSize());
+    }
+
+    @Test
+    public void shouldNotStoreLoadThatRacedWithInvalidation() {
+        BoundedCache<String, String> cache = new BoundedCache<>(2, 1, TimeUnit.MINUTES, clock::get);
+        cache.get("a", key -> {
+            cache.invalidateAll();
+            return "stale";
+        });
+
+        assertNull(cache.get("a"));
+    }
+}
@@ -3,20 +3,35 @@ package com.example.demo.controller;
 import com.example.demo.controllers.CartController;
 import com.example.demo.model.persistence.Cart;
 import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.Money;
 import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.repositories.CartRepository;
 import com.example.demo.model.persistence.repositories.ItemRepository;
 import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.requests.CartAction;
 import com.example.demo.model.requests.ModifyCartRequest;
+import com.example.demo.model.responses.CartResponse;
+import com.example.demo.services.CartService;
+import com.example.demo.services.TransactionalCartStore;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.ResponseEntity;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Optional;
 
 import static org.junit.Assert.*;
@@ -39,12 +54,15 @@ public class CartControllerTest {
     @Before
     public void setup() {
         MockitoAnnotations.initMocks(this);
+        ReflectionTestUtils.setField(cartController, "cartService",
+                new CartService(users, items,
+                        new TransactionalCartStore(cartRepository, mock(PlatformTransactionManager.class), 4, 3)));
     }
 
     @Test
     public void addToCartNoUserError() {
         ModifyCartRequest modifyCartRequest = createModifyCartRequest("", 1, 1);
-        ResponseEntity<Cart> responseEntity = cartController.addTocart(modifyCartRequest);
+        ResponseEntity<CartResponse> responseEntity = cartController.addTocart(modifyCartRequest);
         assertResponseError(responseEntity, 404);
     }
 
@@ -54,7 +72,7 @@ public class CartControllerTest {
         setupItemMock(1L, Optional.empty());
 
         ModifyCartRequest modifyCartRequest = createModifyCartRequest("Username", 1, 1);
-        ResponseEntity<Cart> responseEntity = cartController.addTocart(modifyCartRequest);
+        ResponseEntity<CartResponse> responseEntity = cartController.addTocart(modifyCartRequest);
         verify(items, times(1)).findById(1L);
         assertResponseError(responseEntity, 404);
     }
@@ -65,21 +83,38 @@ public class CartControllerTest {
         Item item = setupItemMock(1L, Optional.of(createItem()));
 
         ModifyCartRequest modifyCartRequest = createModifyCartRequest("Username", 1, 1);
-        ResponseEntity<Cart> responseEntity = cartController.addTocart(modifyCartRequest);
+        ResponseEntity<CartResponse> responseEntity = cartController.addTocart(modifyCartRequest);
 
         assertNotNull(responseEntity);
         assertEquals(200, responseEntity.getStatusCodeValue());
 
-        Cart responseCart = responseEntity.getBody();
+        CartResponse responseCart = responseEntity.getBody();
         assertNotNull(responseCart);
-        assertNotNull(responseCart.getItems());
-        verify(cartRepository, times(1)).save(responseCart);
+        assertNotNull(responseCart.getLines());
+        verify(cartRepository, times(1)).save(user.getCart());
+    }
+
+    @Test
+    public void addToCartSerializesFlatLinesWithoutUser() throws Exception {
+        setupUserMock("Username");
+        Item item = setupItemMock(1L, Optional.of(createItem()));
+
+        ResponseEntity<CartResponse> responseEntity = cartController.addTocart(createModifyCartRequest("Username", 1, 3));
+
+        JsonNode json = new ObjectMapper().valueToTree(responseEntity.getBody());
+        assertFalse(json.has("user"));
+        assertEquals(1, json.get("id").asLong());
+        assertEquals(1, json.get("lines").size());
+        JsonNode line = json.get("lines").get(0);
+        assertEquals(1, line.get("itemId").asLong());
+        assertEquals(item.getName(), line.get("name").asText());
+        assertEquals(3, line.get("quantity").asInt());
     }
 
     @Test
     public void removeFromCartNoUserError() {
         ModifyCartRequest modifyCartRequest = createModifyCartRequest("", 1, 1);
-        ResponseEntity<Cart> responseEntity = cartController.removeFromcart(modifyCartRequest);
+        ResponseEntity<CartResponse> responseEntity = cartController.removeFromcart(modifyCartRequest);
         assertResponseError(responseEntity, 404);
     }
 
@@ -89,7 +124,7 @@ public class CartControllerTest {
         setupItemMock(1L, Optional.empty());
 
         ModifyCartRequest modifyCartRequest = createModifyCartRequest("Username", 1, 1);
-        ResponseEntity<Cart> responseEntity = cartController.removeFromcart(modifyCartRequest);
+        ResponseEntity<CartResponse> responseEntity = cartController.removeFromcart(modifyCartRequest);
         verify(items, times(1)).findById(1L);
         assertResponseError(responseEntity, 404);
     }
@@ -102,20 +137,160 @@ public class CartControllerTest {
         cart.addItem(item);
 
         ModifyCartRequest modifyCartRequest = createModifyCartRequest("Username", 1, 1);
-        ResponseEntity<Cart> responseEntity = cartController.removeFromcart(modifyCartRequest);
+        ResponseEntity<CartResponse> responseEntity = cartController.removeFromcart(modifyCartRequest);
 
         assertNotNull(responseEntity);
         assertEquals(200, responseEntity.getStatusCodeValue());
 
-        Cart responseCart = responseEntity.getBody();
+        CartResponse responseCart = responseEntity.getBody();
+        assertNotNull(responseCart);
+        assertTrue(responseCart.getLines().isEmpty());
+        verify(cartRepository, times(1)).save(user.getCart());
+    }
+
+    @Test
+    public void addToCartKeepsOneLinePerItem() {
+        setupUserMock("Username");
+        setupItemMock(1L, Optional.of(createItem()));
+
+        cartController.addTocart(createModifyCartRequest("Username", 1, 500));
+        ResponseEntity<CartResponse> responseEntity = cartController.addTocart(createModifyCartRequest("Username", 1, 2));
+
+        CartResponse responseCart = responseEntity.getBody();
+        assertNotNull(responseCart);
+        assertEquals(1, responseCart.getLines().size());
+        assertEquals(502, responseCart.getLines().get(0).getQuantity());
+        assertEquals(0, BigDecimal.valueOf(5020).compareTo(responseCart.getTotal()));
+    }
+
+    @Test
+    public void removeFromCartNeverRemovesMoreThanInCart() {
+        User user = setupUserMock("Username");
+        Item item = setupItemMock(1L, Optional.of(createItem()));
+        user.getCart().addItem(item, 3);
+
+        cartController.removeFromcart(createModifyCartRequest("Username", 1, 2));
+        assertEquals(1, user.getCart().getQuantity(item));
+
+        ResponseEntity<CartResponse> responseEntity = cartController.removeFromcart(createModifyCartRequest("Username", 1, 5));
+
+        CartResponse responseCart = responseEntity.getBody();
         assertNotNull(responseCart);
-        assertTrue(responseCart.getItems().isEmpty());
-        verify(cartRepository, times(1)).save(responseCart);
+        assertTrue(responseCart.getLines().isEmpty());
+        assertEquals(0, BigDecimal.ZERO.compareTo(responseCart.getTotal()));
+    }
+
+    @Test
+    public void modifyCartAppliesAllOperationsWithOneSave() {
+        User user = setupUserMock("Username");
+        Item first = createItem();
+        Item second = createItem();
+        second.setId(2L);
+        second.setPrice(Money.ofCents(150));
+        when(items.findAllById(any())).thenReturn(Arrays.asList(first, second));
+
+        ModifyCartRequest removeSecond = createModifyCartRequest("Username", 2, 1);
+        removeSecond.setAction(CartAction.REMOVE);
+        ResponseEntity<CartResponse> responseEntity = cartController.modifyCart(Arrays.asList(
+                createModifyCartRequest("Username", 1, 2),
+                createModifyCartRequest("Username", 2, 3),
+                removeSecond));
+
+        assertEquals(200, responseEntity.getStatusCodeValue());
+        CartResponse responseCart = responseEntity.getBody();
+        assertEquals(2, responseCart.getLines().get(0).getQuantity());
+        assertEquals(2, responseCart.getLines().get(1).getQuantity());
+        assertEquals(0, BigDecimal.valueOf(23).compareTo(responseCart.getTotal()));
+        verify(items, times(1)).findAllById(any());
+        verify(items, never()).findById(anyLong());
+        verify(cartRepository, times(1)).save(user.getCart());
+    }
+
+    @Test
+    public void modifyCartMissingItemLeavesCartUntouched() {
+        User user = setupUserMock("Username");
+        when(items.findAllById(any())).thenReturn(Collections.singletonList(createItem()));
+
+        ResponseEntity<CartResponse> responseEntity = cartController.modifyCart(Arrays.asList(
+                createModifyCartRequest("Username", 1, 2),
+                createModifyCartRequest("Username", 2, 3)));
+
+        assertResponseError(responseEntity, 404);
+        assertTrue(user.getCart().getItems().isEmpty());
+        verify(cartRepository, never()).save(any());
+    }
+
+    @Test
+    public void modifyCartRejectsMixedUsers() {
+        ResponseEntity<CartResponse> responseEntity = cartController.modifyCart(Arrays.asList(
+                createModifyCartRequest("Username", 1, 2),
+                createModifyCartRequest("Other", 1, 3)));
+
+        assertResponseError(responseEntity, 400);
+    }
+
+    @Test
+    public void addToCartRetriesOnVersionConflict() {
+        User user = setupUserMock("Username");
+        setupItemMock(1L, Optional.of(createItem()));
+        when(cartRepository.save(user.getCart()))
+                .thenThrow(new OptimisticLockingFailureException("stale cart"))
+                .thenReturn(user.getCart());
+
+        ResponseEntity<CartResponse> responseEntity = cartController.addTocart(createModifyCartRequest("Username", 1, 1));
+
+        assertEquals(200, responseEntity.getStatusCodeValue());
+        verify(cartRepository, times(2)).findById(1L);
+        verify(cartRepository, times(2)).save(user.getCart());
+    }
+
+    @Test
+    public void addToCartReturnsConflictWhenRetriesAreExhausted() {
+        User user = setupUserMock("Username");
+        setupItemMock(1L, Optional.of(createItem()));
+        when(cartRepository.save(user.getCart())).thenThrow(new OptimisticLockingFailureException("stale cart"));
+
+        ResponseEntity<CartResponse> responseEntity = cartController.addTocart(createModifyCartRequest("Username", 1, 1));
+
+        assertResponseError(responseEntity, 409);
+        verify(cartRepository, times(3)).save(user.getCart());
+    }
+
+    @Test
+    public void addToCartRetriesWhenTheNewLineCollidesOnItsUniqueKey() {
+        User user = setupUserMock("Username");
+        setupItemMock(1L, Optional.of(createItem()));
+        when(cartRepository.save(user.getCart()))
+                .thenThrow(new DuplicateKeyException("cart_line (cart_id, item_id)"))
+                .thenReturn(user.getCart());
+
+        ResponseEntity<CartResponse> responseEntity = cartController.addTocart(createModifyCartRequest("Username", 1, 1));
+
+        assertEquals(200, responseEntity.getStatusCodeValue());
+        verify(cartRepository, times(2)).save(user.getCart());
+    }
+
+    @Test
+    public void addToCartDoesNotRetryOtherIntegrityViolations() {
+        User user = setupUserMock("Username");
+        setupItemMock(1L, Optional.of(createItem()));
+        DataIntegrityViolationException foreignKey = new DataIntegrityViolationException("cart_line.item_id",
+                new SQLException("Referential integrity constraint violation", "23506"));
+        when(cartRepository.save(user.getCart())).thenThrow(foreignKey);
+
+        try {
+            cartController.addTocart(createModifyCartRequest("Username", 1, 1));
+            fail("Expected the integrity violation to propagate");
+        } catch (DataIntegrityViolationException e) {
+            assertSame(foreignKey, e);
+        }
+        verify(cartRepository, times(1)).save(user.getCart());
     }
 
     private User setupUserMock(String username) {
         User user = createUser(username);
         when(users.findByUsername(username)).thenReturn(user);
+        when(cartRepository.findById(user.getCart().getId())).thenReturn(Optional.of(user.getCart()));
         return user;
     }
 
@@ -124,7 +299,7 @@ public class CartControllerTest {
         return itemOptional.orElse(null);
     }
 
-    private void assertResponseError(ResponseEntity<Cart> responseEntity, int expectedStatusCode) {
+    private void assertResponseError(ResponseEntity<CartResponse> responseEntity, int expectedStatusCode) {
         assertNotNull(responseEntity);
         assertEquals(expectedStatusCode, responseEntity.getStatusCodeValue());
     }
@@ -138,7 +313,7 @@ public class CartControllerTest {
         Cart cart = new Cart();
         cart.setId(1L);
         cart.setItems(new ArrayList<>());
-        cart.setTotal(BigDecimal.valueOf(0.0));
+        cart.setTotal(Money.ZERO);
         user.setCart(cart);
 
         return user;
@@ -149,7 +324,7 @@ public class CartControllerTest {
         item.setId(1L);
         item.setName("Created Item");
         item.setDescription("This is fake item.");
-        item.setPrice(BigDecimal.valueOf(10.0));
+        item.setPrice(Money.ofCents(1000));
         return item;
     }
 
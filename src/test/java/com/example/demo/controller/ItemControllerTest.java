@@ -2,22 +2,33 @@ package com.example.demo.controller;
 
 import com.example.demo.controllers.ItemController;
 import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.ItemChangedEvent;
+import com.example.demo.model.persistence.Money;
 import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.responses.ItemSuggestion;
+import com.example.demo.services.CatalogCache;
+import com.example.demo.services.ItemSearchIndex;
+import com.example.demo.services.ItemSuggester;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
 
-import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 import static org.junit.Assert.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class ItemControllerTest {
@@ -31,6 +42,9 @@ public class ItemControllerTest {
     @Before
     public void setUp() {
         MockitoAnnotations.initMocks(this);
+        ReflectionTestUtils.setField(itemController, "catalogCache", new CatalogCache(itemRepository, 10, 60));
+        ReflectionTestUtils.setField(itemController, "itemSearchIndex", new ItemSearchIndex());
+        ReflectionTestUtils.setField(itemController, "itemSuggester", new ItemSuggester(2));
     }
 
     @Test
@@ -71,17 +85,202 @@ public class ItemControllerTest {
         assertEquals(itemsList, returnedItems);
     }
 
+    @Test
+    public void shouldServeRepeatedLookupsFromCache() {
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(mockItem()));
+
+        itemController.getItemById(1L);
+        ResponseEntity<Item> response = itemController.getItemById(1L);
+
+        verifyResponse(response, HttpStatus.OK);
+        verify(itemRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    public void shouldReloadItemsAfterInvalidation() {
+        when(itemRepository.findAll()).thenReturn(Collections.singletonList(mockItem()));
+        CatalogCache catalogCache = (CatalogCache) ReflectionTestUtils.getField(itemController, "catalogCache");
+
+        itemController.getItems();
+        catalogCache.invalidateAll();
+        itemController.getItems();
+
+        verify(itemRepository, times(2)).findAll();
+    }
+
+    @Test
+    public void shouldReturnPageWithNextCursorWhenPageIsFull() {
+        when(itemRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 1)))
+                .thenReturn(Collections.singletonList(mockItem()));
+
+        ResponseEntity<List<Item>> response = itemController.getItemsPage(1, 0L);
+
+        verifyResponse(response, HttpStatus.OK);
+        assertEquals(1, response.getBody().size());
+        assertEquals("1", response.getHeaders().getFirst(ItemController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    public void shouldOmitNextCursorOnLastPage() {
+        when(itemRepository.findByIdGreaterThanOrderByIdAsc(1L, PageRequest.of(0, 10)))
+                .thenReturn(Collections.emptyList());
+
+        ResponseEntity<List<Item>> response = itemController.getItemsPage(10, 1L);
+
+        verifyResponse(response, HttpStatus.OK);
+        assertNull(response.getHeaders().getFirst(ItemController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    public void shouldRejectInvalidPageSize() {
+        ResponseEntity<List<Item>> response = itemController.getItemsPage(0, 0L);
+
+        verifyResponse(response, HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    public void shouldRankNameMatchesAboveDescriptionMatches() {
+        ItemSearchIndex index = (ItemSearchIndex) ReflectionTestUtils.getField(itemController, "itemSearchIndex");
+        Item round = mockItem(1L, "Round Widget", "A widget that is round");
+        Item gadget = mockItem(2L, "Gadget", "Works with any widget");
+        Item square = mockItem(3L, "Square Widget", "A widget that is square");
+        index.indexAll(Arrays.asList(gadget, round, square));
+
+        ResponseEntity<List<Item>> response = itemController.searchItems("round WIDGET", 10);
+
+        verifyResponse(response, HttpStatus.OK);
+        assertEquals(Arrays.asList(round, square, gadget), response.getBody());
+    }
+
+    @Test
+    public void shouldMatchCaseInsensitivelyUnderTurkishLocale() {
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(new Locale("tr", "TR"));
+        try {
+            ItemSearchIndex index = (ItemSearchIndex) ReflectionTestUtils.getField(itemController, "itemSearchIndex");
+            Item iron = mockItem(1L, "IRON Widget", "A widget for ironing");
+            index.index(iron);
+
+            ResponseEntity<List<Item>> response = itemController.searchItems("iron", 10);
+
+            verifyResponse(response, HttpStatus.OK);
+            assertEquals(Collections.singletonList(iron), response.getBody());
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    public void shouldDropRemovedItemsFromSearch() {
+        ItemSearchIndex index = (ItemSearchIndex) ReflectionTestUtils.getField(itemController, "itemSearchIndex");
+        index.index(mockItem(1L, "Round Widget", "A widget that is round"));
+        index.remove(1L);
+
+        ResponseEntity<List<Item>> response = itemController.searchItems("widget", 10);
+
+        verifyResponse(response, HttpStatus.OK);
+        assertTrue(response.getBody().isEmpty());
+    }
+
+    @Test
+    public void shouldRejectBlankSearchQuery() {
+        ResponseEntity<List<Item>> response = itemController.searchItems("  ", 10);
+
+        verifyResponse(response, HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    public void shouldSuggestTopItemsForPrefixOfAnyWord() {
+        ItemSuggester suggester = (ItemSuggester) ReflectionTestUtils.getField(itemController, "itemSuggester");
+        suggester.putAll(Arrays.asList(
+                mockItem(1L, "Round Widget", "A widget that is round"),
+                mockItem(2L, "Square Widget", "A widget that is square"),
+                mockItem(3L, "Widget", "Just a widget"),
+                mockItem(4L, "Gadget", "Not a widget")));
+
+        ResponseEntity<List<ItemSuggestion>> response = itemController.suggestItems("WID", 10);
+
+        verifyResponse(response, HttpStatus.OK);
+        List<ItemSuggestion> suggestions = response.getBody();
+        assertEquals(2, suggestions.size());
+        assertEquals("Widget", suggestions.get(0).getName());
+        assertEquals("Round Widget", suggestions.get(1).getName());
+    }
+
+    @Test
+    public void shouldReturnNoSuggestionsForUnknownPrefix() {
+        ItemSuggester suggester = (ItemSuggester) ReflectionTestUtils.getField(itemController, "itemSuggester");
+        suggester.putAll(Collections.singletonList(mockItem()));
+
+        ResponseEntity<List<ItemSuggestion>> response = itemController.suggestItems("xyz", 10);
+
+        verifyResponse(response, HttpStatus.OK);
+        assertTrue(response.getBody().isEmpty());
+    }
+
+    @Test
+    public void shouldSuggestCaseInsensitivelyUnderTurkishLocale() {
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(new Locale("tr", "TR"));
+        try {
+            ItemSuggester suggester = (ItemSuggester) ReflectionTestUtils.getField(itemController, "itemSuggester");
+            suggester.putAll(Collections.singletonList(mockItem(1L, "IRON Widget", "A widget for ironing")));
+
+            List<ItemSuggestion> suggestions = itemController.suggestItems("Ir", 10).getBody();
+
+            assertEquals(1, suggestions.size());
+            assertEquals("IRON Widget", suggestions.get(0).getName());
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    public void shouldMatchPrefixesEndingInsideCompressedEdges() {
+        ItemSuggester suggester = (ItemSuggester) ReflectionTestUtils.getField(itemController, "itemSuggester");
+        suggester.putAll(Arrays.asList(
+                mockItem(1L, "Widget", "Just a widget"),
+                mockItem(2L, "Widgetron", "A bigger widget")));
+
+        assertEquals(2, itemController.suggestItems("widg", 10).getBody().size());
+        assertEquals(2, itemController.suggestItems("widget", 10).getBody().size());
+        List<ItemSuggestion> longer = itemController.suggestItems("widgetr", 10).getBody();
+        assertEquals(1, longer.size());
+        assertEquals("Widgetron", longer.get(0).getName());
+        assertTrue(itemController.suggestItems("widgex", 10).getBody().isEmpty());
+        assertTrue(itemController.suggestItems("widgetronic", 10).getBody().isEmpty());
+    }
+
+    @Test
+    public void shouldServeOldSnapshotUntilBackgroundRebuildSwapsInChange() throws InterruptedException {
+        ItemSuggester suggester = (ItemSuggester) ReflectionTestUtils.getField(itemController, "itemSuggester");
+        suggester.putAll(Collections.singletonList(mockItem(1L, "Widget", "Just a widget")));
+
+        suggester.onItemChanged(new ItemChangedEvent(mockItem(2L, "Gadget", "Not a widget"), false));
+
+        for (int i = 0; i < 100 && itemController.suggestItems("gad", 10).getBody().isEmpty(); i++) {
+            Thread.sleep(20);
+        }
+        assertEquals("Gadget", itemController.suggestItems("gad", 10).getBody().get(0).getName());
+        assertEquals("Widget", itemController.suggestItems("wid", 10).getBody().get(0).getName());
+        suggester.stop();
+    }
+
     private void verifyResponse(ResponseEntity<?> response, HttpStatus expectedStatus) {
         assertNotNull(response);
         assertEquals(expectedStatus, response.getStatusCode());
     }
 
     private Item mockItem() {
+        return mockItem(1L, "Created Item", "This is a mock item.");
+    }
+
+    private Item mockItem(long id, String name, String description) {
         Item item = new Item();
-        item.setId(1L);
-        item.setName("Created Item");
-        item.setDescription("This is a mock item.");
-        item.setPrice(BigDecimal.valueOf(55.0));
+        item.setId(id);
+        item.setName(name);
+        item.setDescription(description);
+        item.setPrice(Money.ofCents(5500));
         return item;
     }
 }
@@ -2,25 +2,55 @@ package com.example.demo.controller;
 
 import com.example.demo.controllers.OrderController;
 import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.IdempotencyRecord;
 import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.Money;
 import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.UserOrder;
 import com.example.demo.model.persistence.repositories.OrderRepository;
+import com.example.demo.model.persistence.repositories.CartRepository;
+import com.example.demo.model.persistence.repositories.IdempotencyRecordRepository;
+import com.example.demo.model.persistence.repositories.ItemRepository;
 import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.responses.OrderResponse;
+import com.example.demo.model.responses.OrderSubmission;
+import com.example.demo.security.AuthenticatedUser;
+import com.example.demo.services.CartService;
+import com.example.demo.services.IdempotentOrderService;
+import com.example.demo.services.OrderBatchWriter;
+import com.example.demo.services.OrderEventOutbox;
+import com.example.demo.services.OrderService;
+import com.example.demo.services.OrderSubmissionQueue;
+import com.example.demo.services.SalesRollupService;
+import com.example.demo.services.TransactionalCartStore;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
-import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
 
 public class OrderControllerTest {
 
@@ -33,9 +63,33 @@ public class OrderControllerTest {
     @Mock
     private OrderRepository orderRepository;
 
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private OrderSubmissionQueue orderSubmissionQueue;
+
+    @After
+    public void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
     @Before
     public void setup() {
         MockitoAnnotations.initMocks(this);
+        TransactionalCartStore cartStore = new TransactionalCartStore(mock(CartRepository.class),
+                mock(PlatformTransactionManager.class), 4, 3);
+        ReflectionTestUtils.setField(orderController, "cartService",
+                new CartService(userRepository, mock(ItemRepository.class), cartStore));
+        // No workers, so queued orders stay queued; capacity 1 makes the second submit overflow.
+        orderSubmissionQueue = new OrderSubmissionQueue(mock(OrderBatchWriter.class), 1, 0, 10, 10, 60);
+        orderSubmissionQueue.start();
+        ReflectionTestUtils.setField(orderController, "orderSubmissionQueue", orderSubmissionQueue);
+        OrderService orderService = new OrderService(orderRepository, mock(SalesRollupService.class),
+                mock(OrderEventOutbox.class));
+        ReflectionTestUtils.setField(orderController, "orderService", orderService);
+        ReflectionTestUtils.setField(orderController, "idempotentOrderService", new IdempotentOrderService(
+                idempotencyRecordRepository, orderRepository, orderService, mock(PlatformTransactionManager.class),
+                10, TimeUnit.DAYS.toSeconds(1), 60));
     }
 
     @Test
@@ -47,25 +101,36 @@ public class OrderControllerTest {
 
         when(userRepository.findByUsername("Username")).thenReturn(user);
 
-        ResponseEntity<UserOrder> response = orderController.submit("Username");
+        ResponseEntity<OrderResponse> response = orderController.submit("Username", null);
 
         assertResponse(response, HttpStatus.OK);
-        UserOrder order = response.getBody();
+        OrderResponse order = response.getBody();
         assertNotNull(order);
-        assertNotNull(order.getItems());
-        assertEquals(1, order.getItems().size());
-        assertEquals(item.getName(), order.getItems().get(0).getName());
+        assertNotNull(order.getLines());
+        assertEquals(1, order.getLines().size());
+        assertEquals(item.getName(), order.getLines().get(0).getName());
     }
 
     @Test
     public void shouldReturnNotFoundWhenUserDoesNotExist() {
         when(userRepository.findByUsername("Username")).thenReturn(null);
 
-        ResponseEntity<UserOrder> response = orderController.submit("Username");
+        ResponseEntity<OrderResponse> response = orderController.submit("Username", null);
 
         assertResponse(response, HttpStatus.NOT_FOUND);
     }
 
+    @Test
+    public void shouldReturnNotFoundWhenTokenUserNoLongerExists() {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new AuthenticatedUser("Username", 42L, 43L), null, Collections.emptyList()));
+        when(userRepository.findById(42L)).thenReturn(Optional.empty());
+
+        assertResponse(orderController.submit("Username", null), HttpStatus.NOT_FOUND);
+        assertResponse(orderController.submitAsync("Username"), HttpStatus.NOT_FOUND);
+        verify(userRepository, never()).getOne(any());
+    }
+
     @Test
     public void shouldReturnOrdersForUserWhenOrdersExist() {
         User user = createMockUser();
@@ -74,12 +139,12 @@ public class OrderControllerTest {
         cart.addItem(item);
 
         when(userRepository.findByUsername("Username")).thenReturn(user);
-        orderController.submit("Username"); // Assume this creates an order
+        orderController.submit("Username", null); // Assume this creates an order
 
-        ResponseEntity<List<UserOrder>> response = orderController.getOrdersForUser("Username");
+        ResponseEntity<List<OrderResponse>> response = orderController.getOrdersForUser("Username", 50, null);
 
         assertResponse(response, HttpStatus.OK);
-        List<UserOrder> orders = response.getBody();
+        List<OrderResponse> orders = response.getBody();
         assertNotNull(orders);
         assertTrue(orders.isEmpty());
     }
@@ -88,11 +153,149 @@ public class OrderControllerTest {
     public void shouldReturnNotFoundWhenUserIsNullForOrderHistory() {
         when(userRepository.findByUsername("Username")).thenReturn(null);
 
-        ResponseEntity<List<UserOrder>> response = orderController.getOrdersForUser("Username");
+        ResponseEntity<List<OrderResponse>> response = orderController.getOrdersForUser("Username", 50, null);
 
         assertResponse(response, HttpStatus.NOT_FOUND);
     }
 
+    @Test
+    public void shouldRejectInvalidHistoryPageSize() {
+        ResponseEntity<List<OrderResponse>> response = orderController.getOrdersForUser("Username", 0, null);
+
+        assertResponse(response, HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    public void shouldQueueOrderAndReportItsStatus() {
+        User user = createMockUser();
+        user.getCart().addItem(createMockItem());
+        when(userRepository.findByUsername("Username")).thenReturn(user);
+
+        ResponseEntity<OrderSubmission> response = orderController.submitAsync("Username");
+
+        assertResponse(response, HttpStatus.ACCEPTED);
+        String reference = response.getBody().getReference();
+        assertEquals("/api/order/status/" + reference, response.getHeaders().getLocation().toString());
+        assertEquals(1, orderSubmissionQueue.getQueueDepth());
+
+        ResponseEntity<OrderSubmission> status = orderController.getSubmissionStatus(reference);
+        assertResponse(status, HttpStatus.OK);
+        assertEquals(OrderSubmission.Status.QUEUED, status.getBody().getStatus());
+    }
+
+    @Test
+    public void shouldRejectOrderWhenQueueIsFull() {
+        when(userRepository.findByUsername("Username")).thenReturn(createMockUser());
+        orderController.submitAsync("Username");
+
+        ResponseEntity<OrderSubmission> response = orderController.submitAsync("Username");
+
+        assertResponse(response, HttpStatus.SERVICE_UNAVAILABLE);
+        assertNotNull(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(1, orderSubmissionQueue.getRejectedCount());
+    }
+
+    @Test
+    public void shouldReturnNotFoundForUnknownSubmission() {
+        assertResponse(orderController.getSubmissionStatus("missing"), HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    public void shouldReplayOrderForRepeatedIdempotencyKey() {
+        User user = createMockUser();
+        user.getCart().addItem(createMockItem());
+        when(userRepository.findByUsername("Username")).thenReturn(user);
+
+        ResponseEntity<OrderResponse> first = orderController.submit("Username", "key-1");
+        ResponseEntity<OrderResponse> retry = orderController.submit("Username", "key-1");
+
+        assertResponse(retry, HttpStatus.OK);
+        assertSame(first.getBody(), retry.getBody());
+        verify(orderRepository, times(1)).save(any(UserOrder.class));
+        verify(idempotencyRecordRepository, times(1)).saveAndFlush(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    public void shouldReplayStoredOrderFromDatabaseOnCacheMiss() {
+        when(userRepository.findByUsername("Username")).thenReturn(createMockUser());
+        IdempotencyRecord record = new IdempotencyRecord("Username", "key-1", Instant.now());
+        record.setOrderId(7L);
+        when(idempotencyRecordRepository.findByUsernameAndKey("Username", "key-1")).thenReturn(record);
+        UserOrder stored = UserOrder.createFromCart(createMockUser().getCart());
+        stored.setId(7L);
+        when(orderRepository.findWithLinesByIdIn(Collections.singleton(7L))).thenReturn(Collections.singletonList(stored));
+
+        ResponseEntity<OrderResponse> response = orderController.submit("Username", "key-1");
+
+        assertResponse(response, HttpStatus.OK);
+        assertEquals(Long.valueOf(7L), response.getBody().getId());
+        verify(orderRepository, never()).save(any(UserOrder.class));
+    }
+
+    @Test
+    public void shouldCreateNewOrderWhenStoredKeyHasExpired() {
+        when(userRepository.findByUsername("Username")).thenReturn(createMockUser());
+        IdempotencyRecord record = new IdempotencyRecord("Username", "key-1", Instant.now().minus(Duration.ofDays(2)));
+        record.setOrderId(7L);
+        when(idempotencyRecordRepository.findByUsernameAndKey("Username", "key-1")).thenReturn(record);
+
+        ResponseEntity<OrderResponse> response = orderController.submit("Username", "key-1");
+
+        assertResponse(response, HttpStatus.OK);
+        verify(idempotencyRecordRepository).delete(record);
+        verify(orderRepository, times(1)).save(any(UserOrder.class));
+    }
+
+    @Test
+    public void shouldPurgeKeysOlderThanTtl() {
+        IdempotentOrderService idempotentOrderService =
+                (IdempotentOrderService) ReflectionTestUtils.getField(orderController, "idempotentOrderService");
+        when(idempotencyRecordRepository.deleteCreatedBefore(any(Instant.class))).thenReturn(3);
+        Instant before = Instant.now();
+
+        assertEquals(3, idempotentOrderService.purgeExpired());
+
+        ArgumentCaptor<Instant> cutoff = ArgumentCaptor.forClass(Instant.class);
+        verify(idempotencyRecordRepository).deleteCreatedBefore(cutoff.capture());
+        assertFalse(cutoff.getValue().isBefore(before.minus(Duration.ofDays(1))));
+        assertFalse(cutoff.getValue().isAfter(Instant.now().minus(Duration.ofDays(1))));
+    }
+
+    @Test
+    public void shouldReturnConflictWhileKeyIsClaimedByAnotherRequest() {
+        when(userRepository.findByUsername("Username")).thenReturn(createMockUser());
+        when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class)))
+                .thenThrow(new DuplicateKeyException("duplicate key"));
+
+        ResponseEntity<OrderResponse> response = orderController.submit("Username", "key-1");
+
+        assertResponse(response, HttpStatus.CONFLICT);
+        verify(orderRepository, never()).save(any(UserOrder.class));
+    }
+
+    @Test
+    public void shouldPropagateOrderFailureUnderIdempotencyKey() {
+        User user = createMockUser();
+        user.getCart().addItem(createMockItem());
+        when(userRepository.findByUsername("Username")).thenReturn(user);
+        DataIntegrityViolationException failure = new DataIntegrityViolationException("order_line.item_id");
+        when(orderRepository.save(any(UserOrder.class))).thenThrow(failure);
+
+        try {
+            orderController.submit("Username", "key-1");
+            fail("Expected the order failure to propagate");
+        } catch (DataIntegrityViolationException e) {
+            assertSame(failure, e);
+        }
+    }
+
+    @Test
+    public void shouldRejectOverlongIdempotencyKey() {
+        ResponseEntity<OrderResponse> response = orderController.submit("Username", String.join("", Collections.nCopies(256, "k")));
+
+        assertResponse(response, HttpStatus.BAD_REQUEST);
+    }
+
     private void assertResponse(ResponseEntity<?> response, HttpStatus expectedStatus) {
         assertNotNull(response);
         assertEquals(expectedStatus, response.getStatusCode());
@@ -103,7 +306,7 @@ public class OrderControllerTest {
         item.setId(1L);
         item.setName("Created Item");
         item.setDescription("A sample item for testing.");
-        item.setPrice(BigDecimal.valueOf(55.0));
+        item.setPrice(Money.ofCents(5500));
         return item;
     }
 
@@ -117,7 +320,7 @@ public class OrderControllerTest {
         cart.setId(1L);
         cart.setUser(user);
         cart.setItems(new ArrayList<>());
-        cart.setTotal(BigDecimal.valueOf(0.0));
+        cart.setTotal(Money.ZERO);
         user.setCart(cart);
 
         return user;
@@ -0,0 +1,140 @@
+package com.example.demo.controller;
+
+import com.example.demo.controllers.OrderController;
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.OrderLine;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.persistence.repositories.OrderRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.responses.OrderResponse;
+import com.example.demo.security.AuthenticatedUser;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:order-history;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+public class OrderHistoryQueryCountTest {
+
+    private static final String USERNAME = "history";
+    private static final int ORDER_COUNT = 30;
+    // findByUsername, the user's cart, and the cart's inverse one-to-one back to the user.
+    private static final int USER_LOOKUP_QUERIES = 3;
+
+    @Autowired
+    private OrderController orderController;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+
+    @After
+    public void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Before
+    public void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        transactionTemplate.execute(status -> {
+            if (userRepository.findByUsername(USERNAME) != null) {
+                return null;
+            }
+            User user = new User();
+            user.setUsername(USERNAME);
+            user.setPassword("not-a-real-hash");
+            user.setCart(new Cart());
+            userRepository.save(user);
+            Item first = itemRepository.findById(1L).get();
+            Item second = itemRepository.findById(2L).get();
+            for (int i = 0; i < ORDER_COUNT; i++) {
+                UserOrder order = new UserOrder();
+                order.setUser(user);
+                order.setLines(Arrays.asList(
+                        new OrderLine(order, first.getId(), first.getName(), first.getPrice(), 2),
+                        new OrderLine(order, second.getId(), second.getName(), second.getPrice(), 1)));
+                order.setTotal(first.getPrice().times(2).plus(second.getPrice()));
+                orderRepository.save(order);
+            }
+            return null;
+        });
+    }
+
+    @Test
+    public void historyUsesFixedNumberOfQueriesRegardlessOfPageSize() {
+        assertEquals(USER_LOOKUP_QUERIES + 2, countQueries(5));
+        assertEquals(USER_LOOKUP_QUERIES + 2, countQueries(ORDER_COUNT));
+    }
+
+    @Test
+    public void historyForCallersOwnTokenSkipsUserLookup() {
+        User user = userRepository.findByUsername(USERNAME);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new AuthenticatedUser(USERNAME, user.getId(), user.getCart().getId()), null, Collections.emptyList()));
+
+        assertEquals(2, countQueries(ORDER_COUNT));
+    }
+
+    @Test
+    public void historyPagesNewestFirstWithLineSnapshots() {
+        ResponseEntity<List<OrderResponse>> firstPage = orderController.getOrdersForUser(USERNAME, 20, null);
+        List<OrderResponse> orders = firstPage.getBody();
+        assertEquals(20, orders.size());
+        assertTrue(orders.get(0).getId() > orders.get(19).getId());
+        assertEquals(2, orders.get(0).getLines().size());
+        assertEquals(2, orders.get(0).getLines().get(0).getQuantity());
+        assertEquals(1, orders.get(0).getLines().get(1).getQuantity());
+
+        String cursor = firstPage.getHeaders().getFirst(OrderController.NEXT_CURSOR_HEADER);
+        assertEquals(String.valueOf(orders.get(19).getId()), cursor);
+
+        ResponseEntity<List<OrderResponse>> lastPage = orderController.getOrdersForUser(USERNAME, 20, Long.valueOf(cursor));
+        assertEquals(ORDER_COUNT - 20, lastPage.getBody().size());
+        assertTrue(lastPage.getBody().get(0).getId() < orders.get(19).getId());
+        assertNull(lastPage.getHeaders().getFirst(OrderController.NEXT_CURSOR_HEADER));
+    }
+
+    private long countQueries(int limit) {
+        statistics.clear();
+        ResponseEntity<List<OrderResponse>> response = orderController.getOrdersForUser(USERNAME, limit, null);
+        assertEquals(limit, response.getBody().size());
+        response.getBody().forEach(order -> assertEquals(3, order.getLines().stream().mapToInt(line -> line.getQuantity()).sum()));
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.demo.controller;
+
+import com.example.demo.controllers.ReportController;
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.ItemSales;
+import com.example.demo.model.persistence.Money;
+import com.example.demo.model.persistence.SalesBucket;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.persistence.UserSales;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.services.OrderService;
+import com.example.demo.services.OrderSubmissionQueue;
+import com.example.demo.services.SalesRollupService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sales-report;DB_CLOSE_DELAY=-1",
+        "order.async.workers=1"
+})
+public class ReportControllerTest {
+
+    @Autowired
+    private ReportController reportController;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderSubmissionQueue orderSubmissionQueue;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User buyer;
+
+    @Before
+    public void setup() throws InterruptedException {
+        for (String table : new String[] {"order_line", "user_order", "item_sales", "user_sales", "sales_bucket"}) {
+            jdbcTemplate.update("delete from " + table);
+        }
+        buyer = userRepository.findByUsername("buyer");
+        if (buyer == null) {
+            buyer = new User();
+            buyer.setUsername("buyer");
+            buyer.setPassword("not-a-real-hash");
+            buyer.setCart(new Cart());
+            buyer = userRepository.save(buyer);
+        }
+        Item round = itemRepository.findById(1L).get();
+        Item square = itemRepository.findById(2L).get();
+
+        // Two orders placed synchronously and one through the batch writer.
+        transactionTemplate.execute(status -> orderService.place(UserOrder.createFromCart(cart(round, 3, square, 1))));
+        transactionTemplate.execute(status -> orderService.place(UserOrder.createFromCart(cart(round, 1, square, 0))));
+        long written = orderSubmissionQueue.getWrittenCount();
+        assertNotNull(orderSubmissionQueue.submit(buyer, cart(round, 0, square, 2)));
+        for (int i = 0; i < 50 && orderSubmissionQueue.getWrittenCount() == written; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(written + 1, orderSubmissionQueue.getWrittenCount());
+    }
+
+    @Test
+    public void reportsIncrementalRollups() {
+        assertRollups();
+    }
+
+    @Test
+    public void rebuildProducesSameRollups() {
+        jdbcTemplate.update("update item_sales set units = 0");
+        salesRollupService.rebuild();
+
+        assertRollups();
+    }
+
+    @Test
+    public void concurrentFirstOrdersKeepEveryIncrement() throws Exception {
+        for (String table : new String[] {"item_sales", "user_sales", "sales_bucket"}) {
+            jdbcTemplate.update("delete from " + table);
+        }
+        Item round = itemRepository.findById(1L).get();
+        Item square = itemRepository.findById(2L).get();
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> orders = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            orders.add(executor.submit(() -> {
+                start.await();
+                return transactionTemplate.execute(status -> orderService.place(UserOrder.createFromCart(cart(round, 1, square, 1))));
+            }));
+        }
+        start.countDown();
+        for (Future<?> order : orders) {
+            order.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        List<ItemSales> items = reportController.getTopItems("units", 10).getBody();
+        assertEquals(2, items.size());
+        assertEquals(threads, items.get(0).getUnits());
+        assertEquals(threads, items.get(1).getUnits());
+        assertEquals(threads, reportController.getUserSales("buyer").getBody().getOrders());
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        assertEquals(2 * threads, reportController.getDailySales(today, today).getBody().get(0).getUnits());
+    }
+
+    @Test
+    public void rejectsUnknownSortColumn() {
+        assertEquals(HttpStatus.BAD_REQUEST, reportController.getTopItems("name", 10).getStatusCode());
+    }
+
+    private void assertRollups() {
+        List<ItemSales> byUnits = reportController.getTopItems("units", 10).getBody();
+        assertEquals(2, byUnits.size());
+        assertEquals(Long.valueOf(1L), byUnits.get(0).getItemId());
+        assertEquals(4, byUnits.get(0).getUnits());
+        assertEquals(Money.ofCents(4 * 299), byUnits.get(0).getRevenue());
+        assertEquals(3, byUnits.get(1).getUnits());
+
+        List<ItemSales> byRevenue = reportController.getTopItems("revenue", 1).getBody();
+        assertEquals(Long.valueOf(1L), byRevenue.get(0).getItemId());
+
+        UserSales userSales = reportController.getUserSales("buyer").getBody();
+        assertEquals(3, userSales.getOrders());
+        assertEquals(Money.ofCents(4 * 299 + 3 * 199), userSales.getRevenue());
+
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        List<SalesBucket> days = reportController.getDailySales(today.minusDays(1), today).getBody();
+        assertEquals(1, days.size());
+        assertEquals(today, days.get(0).getDate());
+        assertEquals(3, days.get(0).getOrders());
+        assertEquals(7, days.get(0).getUnits());
+        assertEquals(userSales.getRevenue(), days.get(0).getRevenue());
+    }
+
+    private Cart cart(Item first, int firstQuantity, Item second, int secondQuantity) {
+        Cart cart = new Cart();
+        cart.setUser(buyer);
+        cart.addItem(first, firstQuantity);
+        cart.addItem(second, secondQuantity);
+        return cart;
+    }
+}
@@ -5,11 +5,13 @@ import com.example.demo.model.persistence.User;
 import com.example.demo.model.persistence.repositories.CartRepository;
 import com.example.demo.model.persistence.repositories.UserRepository;
 import com.example.demo.model.requests.CreateUserRequest;
+import com.example.demo.security.PasswordHashingRejectedException;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -18,7 +20,10 @@ import java.util.Optional;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class UserControllerTest {
@@ -55,6 +60,21 @@ public class UserControllerTest {
         assertEquals("Username", createdUser.getUsername());
     }
 
+    @Test
+    public void shouldReturnServiceUnavailableWhenPasswordHashingIsSaturated() {
+        CreateUserRequest userRequest = new CreateUserRequest();
+        userRequest.setUsername("Username");
+        userRequest.setPassword("Password");
+        userRequest.setConfirmPassword("Password");
+        when(encoder.encode("Password")).thenThrow(new PasswordHashingRejectedException("full"));
+
+        ResponseEntity<User> response = userController.createUser(userRequest);
+
+        assertResponse(response, HttpStatus.SERVICE_UNAVAILABLE);
+        assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        verify(userRepository, never()).save(any(User.class));
+    }
+
     @Test
     public void shouldReturnUserWhenFoundById() {
         User user = createMockUser();
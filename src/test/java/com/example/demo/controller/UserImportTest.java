@@ -0,0 +1,102 @@
+package com.example.demo.controller;
+
+import com.example.demo.controllers.UserController;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.requests.CreateUserRequest;
+import com.example.demo.model.responses.UserImportReport;
+import com.example.demo.model.responses.UserImportReport.Status;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:user-import;DB_CLOSE_DELAY=-1",
+        "security.bcrypt.strength=4",
+        "user.import.batch-size=3"
+})
+public class UserImportTest {
+
+    @Autowired
+    private UserController userController;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    public void importsCsvAndReportsEveryRow() throws Exception {
+        userController.createUser(new CreateUserRequest("csv-existing", "password1", "password1"));
+
+        ResponseEntity<UserImportReport> response = userController.importUsersFromCsv(stream(
+                "username,password,confirmPassword\n"
+                        + "csv-alice,password1,password1\n"
+                        + "\"csv-bob\",\"pass,word\"\"2\",\n"
+                        + "csv-carol,short,\n"
+                        + "csv-alice,password3,\n"
+                        + "csv-dave,password4,different\n"
+                        + "csv-existing,password5,\n"
+                        + "csv-erin,password6,\n"));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        UserImportReport report = response.getBody();
+        assertNull(report.getError());
+        assertEquals(3, report.getCreated());
+        assertEquals(4, report.getRejected());
+        assertEquals(
+                List.of(Status.CREATED, Status.CREATED, Status.INVALID, Status.DUPLICATE, Status.INVALID, Status.DUPLICATE, Status.CREATED),
+                report.getRows().stream().map(UserImportReport.Row::getStatus).collect(Collectors.toList()));
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7),
+                report.getRows().stream().map(UserImportReport.Row::getRow).collect(Collectors.toList()));
+
+        transactionTemplate.execute(status -> {
+            User bob = userRepository.findByUsername("csv-bob");
+            assertEquals(report.getRows().get(1).getId().longValue(), bob.getId());
+            assertTrue(BCrypt.checkpw("pass,word\"2", bob.getPassword()));
+            assertNotNull(bob.getCart().getId());
+            return null;
+        });
+    }
+
+    @Test
+    public void importsJsonAndKeepsRowsBeforeMalformedInput() throws Exception {
+        ResponseEntity<UserImportReport> response = userController.importUsersFromJson(stream(
+                "[{\"username\":\"json-alice\",\"password\":\"password1\"},"
+                        + "{\"username\":\"\",\"password\":\"password2\"},"
+                        + "{\"username\":\"json-bob\",\"password\":\"password3\"},"
+                        + "{\"username\":\"json-carol\",\"password\":\"password4\"},"
+                        + "{\"username\":"));
+
+        UserImportReport report = response.getBody();
+        assertEquals(3, report.getCreated());
+        assertEquals(1, report.getRejected());
+        assertNotNull(report.getError());
+        assertNotNull(userRepository.findByUsername("json-carol"));
+    }
+
+    @Test
+    public void rejectsCsvWithoutRequiredColumns() throws Exception {
+        assertEquals(HttpStatus.BAD_REQUEST, userController.importUsersFromCsv(stream("name,secret\nx,y\n")).getStatusCode());
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
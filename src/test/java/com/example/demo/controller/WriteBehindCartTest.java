@@ -0,0 +1,187 @@
+package com.example.demo.controller;
+
+import com.example.demo.controllers.CartController;
+import com.example.demo.controllers.OrderController;
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.Money;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.CartRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.model.responses.OrderResponse;
+import com.example.demo.services.WriteBehindCartStore;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+
+import static com.example.demo.controller.CartControllerTest.createModifyCartRequest;
+import static org.junit.Assert.*;
+
+/**
+ * Runs carts through {@link WriteBehindCartStore}. The timer is set to an hour so every
+ * flush in these tests is one the test asked for, and the store keeps at most one cart so
+ * each flush also has to evict.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:write-behind;DB_CLOSE_DELAY=-1",
+        "cart.write-behind.enabled=true",
+        "cart.write-behind.flush-interval-ms=3600000",
+        "cart.write-behind.max-carts=1"
+})
+public class WriteBehindCartTest {
+
+    private static final long ROUND_WIDGET = 1L;
+
+    @Autowired
+    private WriteBehindCartStore cartStore;
+
+    @Autowired
+    private CartController cartController;
+
+    @Autowired
+    private OrderController orderController;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @After
+    public void flushEverything() {
+        cartStore.flushAll();
+        assertEquals(0, cartStore.getDirtyCount());
+    }
+
+    @Test
+    public void repeatedEditsToOneCartAreFlushedOnce() {
+        User user = createUser("coalesce");
+        long flushes = cartStore.getFlushCount();
+        long flushedCarts = cartStore.getFlushedCartCount();
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(HttpStatus.OK, cartController.addTocart(createModifyCartRequest("coalesce", ROUND_WIDGET, 1)).getStatusCode());
+        }
+        assertEquals(0, storedQuantity(user));
+
+        cartStore.flushAll();
+
+        assertEquals(flushes + 1, cartStore.getFlushCount());
+        assertEquals(flushedCarts + 1, cartStore.getFlushedCartCount());
+        assertEquals(5, storedQuantity(user));
+        assertEquals(Money.ofCents(1495), cartRepository.findById(user.getCart().getId()).get().getTotal());
+        assertEquals(Long.valueOf(1), jdbcTemplate.queryForObject(
+                "select version from cart where id = ?", Long.class, user.getCart().getId()));
+    }
+
+    @Test
+    public void submitOrdersEditsThatWereNotFlushedYet() {
+        User user = createUser("submit");
+        cartController.addTocart(createModifyCartRequest("submit", ROUND_WIDGET, 3));
+        cartController.removeFromcart(createModifyCartRequest("submit", ROUND_WIDGET, 1));
+        assertEquals(0, storedQuantity(user));
+
+        ResponseEntity<OrderResponse> response = orderController.submit("submit", null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().getLines().size());
+        assertEquals(2, response.getBody().getLines().get(0).getQuantity());
+        assertEquals(2, storedQuantity(user));
+    }
+
+    @Test
+    public void failedFlushLeavesCartDirty() {
+        User user = createUser("failing");
+        Item missing = new Item();
+        missing.setId(999999L);
+        missing.setPrice(Money.ofCents(100));
+        Long cartId = user.getCart().getId();
+        cartController.addTocart(createModifyCartRequest("failing", ROUND_WIDGET, 1));
+        cartStore.update(cartId, cart -> cart.addItem(missing));
+
+        try {
+            cartStore.flush(cartId);
+            fail("Expected the line for a missing item to fail the flush");
+        } catch (DataIntegrityViolationException expected) {
+        }
+
+        assertEquals(1, cartStore.getDirtyCount());
+        assertEquals(0, storedQuantity(user));
+        cartStore.update(cartId, cart -> cart.removeItem(missing));
+        cartStore.flush(cartId);
+        assertEquals(1, storedQuantity(user));
+    }
+
+    @Test
+    public void evictionKeepsDirtyCarts() {
+        User flushed = createUser("evicted");
+        User pending = createUser("pending");
+        cartController.addTocart(createModifyCartRequest("evicted", ROUND_WIDGET, 1));
+        cartController.addTocart(createModifyCartRequest("pending", ROUND_WIDGET, 4));
+
+        cartStore.flush(flushed.getCart().getId());
+
+        assertEquals(1, cartStore.getDirtyCount());
+        assertEquals(0, storedQuantity(pending));
+        Cart stale = detached(flushed.getCart().getId());
+        assertSame(stale, cartStore.current(stale));
+        Cart current = cartStore.current(detached(pending.getCart().getId()));
+        assertEquals(1, current.getItems().size());
+        assertEquals(4, current.getItems().get(0).getQuantity());
+    }
+
+    @Test
+    public void stopFlushesDirtyCarts() throws InterruptedException {
+        User user = createUser("shutdown");
+        WriteBehindCartStore store = new WriteBehindCartStore(cartRepository, jdbcTemplate, transactionManager,
+                4, 3600000, 10);
+        store.start();
+        Item round = new Item();
+        round.setId(ROUND_WIDGET);
+        round.setPrice(Money.ofCents(299));
+        store.update(user.getCart().getId(), cart -> cart.addItem(round, 2));
+        assertEquals(0, storedQuantity(user));
+
+        store.stop();
+
+        assertEquals(0, store.getDirtyCount());
+        assertEquals(2, storedQuantity(user));
+    }
+
+    private User createUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("not-a-real-hash-" + username);
+        user.setCart(new Cart());
+        return userRepository.save(user);
+    }
+
+    private int storedQuantity(User user) {
+        return jdbcTemplate.queryForObject("select coalesce(sum(quantity), 0) from cart_line where cart_id = ?",
+                Integer.class, user.getCart().getId());
+    }
+
+    private static Cart detached(Long cartId) {
+        Cart cart = new Cart();
+        cart.setId(cartId);
+        cart.setItems(new ArrayList<>());
+        return cart;
+    }
+}
@@ -0,0 +1,323 @@
+package com.example.demo.loadtest;
+
+import com.example.demo.SareetaApplication;
+import com.example.demo.security.Constants;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Starts the application on a random port against in-memory H2 and drives it over HTTP with
+ * {@code loadtest.concurrency} virtual users for {@code loadtest.duration-seconds}, after
+ * {@code loadtest.warmup-seconds} that are not recorded. Each virtual user repeats a shopping
+ * session: sign up, log in, list the items {@code loadtest.item-views} times, add to the cart
+ * {@code loadtest.cart-adds} times and submit the order.
+ *
+ * <p>Writes {@code summary.json} with throughput and p50/p95/p99/max latency per endpoint to
+ * {@code loadtest.output}, plus one HdrHistogram interval log per endpoint. Users wait for each
+ * response before sending the next request, so under overload the latencies understate what an
+ * open stream of users would see. Any other system property is passed on to the application,
+ * e.g. {@code -Dsecurity.bcrypt.strength=4}.
+ *
+ * <pre>mvn -Ploadtest verify -Dloadtest.concurrency=32 -Dloadtest.duration-seconds=120</pre>
+ */
+public class LoadTest {
+
+    enum Endpoint {
+        CREATE_USER("POST /api/user/create", "create-user"),
+        LOGIN("POST /login", "login"),
+        LIST_ITEMS("GET /api/item", "list-items"),
+        ADD_TO_CART("POST /api/cart/addToCart", "add-to-cart"),
+        SUBMIT_ORDER("POST /api/order/submit", "submit-order");
+
+        private final String label;
+        private final String fileName;
+
+        Endpoint(String label, String fileName) {
+            this.label = label;
+            this.fileName = fileName;
+        }
+    }
+
+    private static final String PASSWORD = "load-test-password";
+    private static final long[] ITEM_IDS = {1L, 2L};
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final int concurrency;
+    private final int durationSeconds;
+    private final int warmupSeconds;
+    private final int itemViews;
+    private final int cartAdds;
+    private final File output;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(REQUEST_TIMEOUT)
+            .build();
+    private final Map<Endpoint, Recorder> recorders = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, Histogram> totals = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, LongAdder> errors = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, HistogramLogWriter> logs = new EnumMap<>(Endpoint.class);
+    private final List<PrintStream> logStreams = new ArrayList<>();
+    private final AtomicLong usernames = new AtomicLong();
+
+    private String baseUrl;
+    private volatile boolean measuring;
+    private volatile boolean running = true;
+
+    LoadTest(int concurrency, int durationSeconds, int warmupSeconds, int itemViews, int cartAdds, File output) {
+        this.concurrency = concurrency;
+        this.durationSeconds = durationSeconds;
+        this.warmupSeconds = warmupSeconds;
+        this.itemViews = itemViews;
+        this.cartAdds = cartAdds;
+        this.output = output;
+        for (Endpoint endpoint : Endpoint.values()) {
+            recorders.put(endpoint, new Recorder(3));
+            totals.put(endpoint, new Histogram(3));
+            errors.put(endpoint, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTest loadTest = new LoadTest(
+                Integer.getInteger("loadtest.concurrency", 16),
+                Integer.getInteger("loadtest.duration-seconds", 60),
+                Integer.getInteger("loadtest.warmup-seconds", 10),
+                Integer.getInteger("loadtest.item-views", 5),
+                Integer.getInteger("loadtest.cart-adds", 3),
+                new File(System.getProperty("loadtest.output", "target/loadtest")));
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(SareetaApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                        "logging.file=",
+                        "logging.level.root=WARN")
+                .run(args);
+        try {
+            loadTest.run(Integer.parseInt(context.getEnvironment().getProperty("local.server.port")));
+        } finally {
+            context.close();
+        }
+    }
+
+    void run(int port) throws Exception {
+        baseUrl = "http://localhost:" + port;
+        if (!output.isDirectory() && !output.mkdirs()) {
+            throw new IOException("Could not create " + output);
+        }
+        ExecutorService users = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "load-user");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < concurrency; i++) {
+            users.execute(this::shop);
+        }
+        System.out.printf("Warming up %d users for %ds%n", concurrency, warmupSeconds);
+        TimeUnit.SECONDS.sleep(warmupSeconds);
+
+        long startMillis = System.currentTimeMillis();
+        openLogs(startMillis);
+        recorders.values().forEach(Recorder::reset);
+        measuring = true;
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        reporter.scheduleAtFixedRate(this::writeIntervals, 1, 1, TimeUnit.SECONDS);
+        System.out.printf("Measuring for %ds%n", durationSeconds);
+        TimeUnit.SECONDS.sleep(durationSeconds);
+
+        measuring = false;
+        running = false;
+        reporter.shutdown();
+        reporter.awaitTermination(5, TimeUnit.SECONDS);
+        writeIntervals();
+        double elapsedSeconds = (System.currentTimeMillis() - startMillis) / 1000.0;
+        users.shutdown();
+        users.awaitTermination(REQUEST_TIMEOUT.getSeconds(), TimeUnit.SECONDS);
+        logStreams.forEach(PrintStream::close);
+
+        Map<String, Object> summary = summary(elapsedSeconds);
+        File summaryFile = new File(output, "summary.json");
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(summaryFile, summary);
+        System.out.println(objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(summary));
+        System.out.printf("Wrote %s and HdrHistogram logs to %s%n", summaryFile, output);
+    }
+
+    private void shop() {
+        while (running) {
+            try {
+                session();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void session() throws InterruptedException {
+        String username = "load-" + usernames.incrementAndGet();
+        Map<String, Object> signUp = new LinkedHashMap<>();
+        signUp.put("username", username);
+        signUp.put("password", PASSWORD);
+        signUp.put("confirmPassword", PASSWORD);
+        if (send(Endpoint.CREATE_USER, post("/api/user/create", signUp, null)) == null) {
+            return;
+        }
+        Map<String, Object> credentials = new LinkedHashMap<>();
+        credentials.put("username", username);
+        credentials.put("password", PASSWORD);
+        HttpResponse<Void> login = send(Endpoint.LOGIN, post("/login", credentials, null));
+        String token = login == null ? null : login.headers().firstValue(Constants.HEADER_STRING).orElse(null);
+        if (token == null) {
+            return;
+        }
+        for (int i = 0; i < itemViews && running; i++) {
+            send(Endpoint.LIST_ITEMS, request("/api/item", token).GET().build());
+        }
+        for (int i = 0; i < cartAdds && running; i++) {
+            Map<String, Object> add = new LinkedHashMap<>();
+            add.put("username", username);
+            add.put("itemId", ITEM_IDS[ThreadLocalRandom.current().nextInt(ITEM_IDS.length)]);
+            add.put("quantity", 1 + ThreadLocalRandom.current().nextInt(3));
+            send(Endpoint.ADD_TO_CART, post("/api/cart/addToCart", add, token));
+        }
+        if (running) {
+            send(Endpoint.SUBMIT_ORDER, request("/api/order/submit/" + username, token)
+                    .POST(HttpRequest.BodyPublishers.noBody())
+                    .build());
+        }
+    }
+
+    /** Returns the response if it was a 2xx, otherwise counts an error and returns {@code null}. */
+    private HttpResponse<Void> send(Endpoint endpoint, HttpRequest request) throws InterruptedException {
+        long start = System.nanoTime();
+        HttpResponse<Void> response;
+        try {
+            response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        } catch (IOException e) {
+            error(endpoint);
+            return null;
+        }
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+        if (response.statusCode() / 100 != 2) {
+            error(endpoint);
+            return null;
+        }
+        if (measuring) {
+            recorders.get(endpoint).recordValue(micros);
+        }
+        return response;
+    }
+
+    private void error(Endpoint endpoint) {
+        if (measuring) {
+            errors.get(endpoint).increment();
+        }
+    }
+
+    private HttpRequest post(String path, Map<String, Object> body, String token) {
+        try {
+            return request(path, token)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(REQUEST_TIMEOUT);
+        if (token != null) {
+            builder.header(Constants.HEADER_STRING, token);
+        }
+        return builder;
+    }
+
+    private void openLogs(long startMillis) throws FileNotFoundException {
+        for (Endpoint endpoint : Endpoint.values()) {
+            PrintStream stream = new PrintStream(new File(output, endpoint.fileName + ".hlog"));
+            logStreams.add(stream);
+            HistogramLogWriter log = new HistogramLogWriter(stream);
+            log.outputComment(endpoint.label + ", latency in microseconds");
+            log.outputLogFormatVersion();
+            log.outputStartTime(startMillis);
+            log.setBaseTime(startMillis);
+            log.outputLegend();
+            logs.put(endpoint, log);
+        }
+    }
+
+    private synchronized void writeIntervals() {
+        for (Endpoint endpoint : Endpoint.values()) {
+            Histogram interval = recorders.get(endpoint).getIntervalHistogram();
+            logs.get(endpoint).outputIntervalHistogram(interval);
+            totals.get(endpoint).add(interval);
+        }
+    }
+
+    private Map<String, Object> summary(double elapsedSeconds) {
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        List<String> failing = new ArrayList<>();
+        for (Endpoint endpoint : Endpoint.values()) {
+            Histogram histogram = totals.get(endpoint);
+            Map<String, Object> latency = new LinkedHashMap<>();
+            latency.put("p50", millis(histogram.getValueAtPercentile(50)));
+            latency.put("p95", millis(histogram.getValueAtPercentile(95)));
+            latency.put("p99", millis(histogram.getValueAtPercentile(99)));
+            latency.put("max", millis(histogram.getMaxValue()));
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("requests", histogram.getTotalCount());
+            stats.put("errors", errors.get(endpoint).sum());
+            stats.put("throughputPerSecond", round(histogram.getTotalCount() / elapsedSeconds));
+            stats.put("latencyMillis", latency);
+            endpoints.put(endpoint.label, stats);
+            if (errors.get(endpoint).sum() > 0) {
+                failing.add(endpoint.label);
+            }
+        }
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("concurrency", concurrency);
+        summary.put("warmupSeconds", warmupSeconds);
+        summary.put("durationSeconds", round(elapsedSeconds));
+        summary.put("itemViewsPerSession", itemViews);
+        summary.put("cartAddsPerSession", cartAdds);
+        summary.put("endpointsWithErrors", failing);
+        summary.put("endpoints", endpoints);
+        return summary;
+    }
+
+    private static double millis(long micros) {
+        return round(micros / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
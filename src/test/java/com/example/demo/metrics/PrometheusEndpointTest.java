@@ -0,0 +1,62 @@
+package com.example.demo.metrics;
+
+import com.example.demo.model.requests.CreateUserRequest;
+import com.example.demo.security.Constants;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:prometheus;DB_CLOSE_DELAY=-1",
+        "security.bcrypt.strength=4"
+})
+public class PrometheusEndpointTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    public void scrapeFromLoopbackCoversRequestsRepositoriesPoolHibernateAndTokens() {
+        restTemplate.postForEntity("/api/user/create",
+                new CreateUserRequest("metrics-user", "password1", "password1"), String.class);
+        Map<String, String> credentials = new LinkedHashMap<>();
+        credentials.put("username", "metrics-user");
+        credentials.put("password", "password1");
+        String token = restTemplate.postForEntity("/login", credentials, Void.class)
+                .getHeaders().getFirst(Constants.HEADER_STRING);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(Constants.HEADER_STRING, token);
+        ResponseEntity<String> items = restTemplate.exchange("/api/item", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        assertEquals(HttpStatus.OK, items.getStatusCode());
+
+        ResponseEntity<String> scrape = restTemplate.getForEntity("/actuator/prometheus", String.class);
+
+        assertEquals(HttpStatus.OK, scrape.getStatusCode());
+        String body = scrape.getBody();
+        assertTrue(body.contains("http_server_requests_seconds_bucket{"));
+        assertTrue(body.contains("uri=\"/api/item\""));
+        assertTrue(body.contains("repository_invocations_seconds_count{method=\"findCredentialsByUsername\",outcome=\"SUCCESS\",repository=\"UserRepository\""));
+        assertTrue(body.contains("hikaricp_connections_active"));
+        assertTrue(body.contains("hibernate_entities_loads_total"));
+        assertTrue(body.contains("hibernate_second_level_cache_requests_total"));
+        assertTrue(body.contains("security_token_verify_seconds_count{result=\"verified\",} 1.0"));
+        assertTrue(body.contains("security_token_verify_seconds_count{result=\"cached\",} 0.0"));
+        assertTrue(body.contains("security_bcrypt_hashes_total"));
+        assertTrue(body.contains("cache_hits_total{cache=\"token\""));
+        assertTrue(body.contains("outbox_delivered_total{sink=\"memory\""));
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.demo.migration;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:order-line-migration;DB_CLOSE_DELAY=-1")
+public class OrderLineMigrationTest {
+
+    @Autowired
+    private OrderLineMigration orderLineMigration;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void keepsLegacyLinesForDeletedItems() {
+        jdbcTemplate.update("insert into cart (id, total, version) values (20000, 0, 0)");
+        jdbcTemplate.update("insert into user (id, username, password, cart_id) values (20000, 'legacy-orders', 'x', 20000)");
+        jdbcTemplate.update("insert into user_order (id, user_id, total) values (20000, 20000, 9.97)");
+        jdbcTemplate.execute("create table user_order_items (user_order_id bigint not null, items_id bigint not null)");
+        jdbcTemplate.update("insert into user_order_items values (20000, 1), (20000, 1), (20000, 999)");
+
+        orderLineMigration.run(null);
+
+        List<Map<String, Object>> lines = jdbcTemplate.queryForList(
+                "select item_id, item_name, unit_price, quantity from order_line where order_id = 20000 order by item_id");
+        assertEquals(2, lines.size());
+        assertEquals("Round Widget", lines.get(0).get("item_name"));
+        assertEquals(2, ((Number) lines.get(0).get("quantity")).intValue());
+        assertEquals(999L, ((Number) lines.get(1).get("item_id")).longValue());
+        assertEquals(OrderLineMigration.DELETED_ITEM_NAME, lines.get(1).get("item_name"));
+        assertEquals(0, BigDecimal.ZERO.compareTo((BigDecimal) lines.get(1).get("unit_price")));
+        assertEquals(1, ((Number) lines.get(1).get("quantity")).intValue());
+        assertFalse(Tables.exists(jdbcTemplate, OrderLineMigration.LEGACY_TABLE));
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.demo.migration;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.Money;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.math.BigDecimal;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:sequence-migration;DB_CLOSE_DELAY=-1")
+public class SequenceMigrationTest {
+
+    @Autowired
+    private SequenceMigration sequenceMigration;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    public void newItemsDoNotReuseSeededIds() {
+        Item item = new Item();
+        item.setName("Triangle Widget");
+        item.setPrice(Money.of(new BigDecimal("3.49")));
+        item.setDescription("A widget that is triangular");
+
+        assertTrue(itemRepository.save(item).getId() > 2);
+    }
+
+    @Test
+    public void sequencesMovePastRowsWrittenWithoutThem() {
+        jdbcTemplate.update("insert into cart (id, total, version) values (10000, 0, 0)");
+        jdbcTemplate.update("insert into user (id, username, password, cart_id) values (10000, 'legacy', 'x', 10000)");
+
+        sequenceMigration.run(null);
+
+        User user = new User();
+        user.setUsername("after-legacy");
+        user.setPassword("not-a-real-hash");
+        user.setCart(new Cart());
+        userRepository.save(user);
+        assertTrue(user.getId() > 10000);
+        assertTrue(user.getCart().getId() > 10000);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.demo.model.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.Assert.*;
+
+public class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void shouldRoundHalfUpToCents() {
+        assertEquals(101, Money.of(new BigDecimal("1.005")).getCents());
+        assertEquals(100, Money.of(new BigDecimal("1.004")).getCents());
+        assertEquals(-101, Money.of(new BigDecimal("-1.005")).getCents());
+        assertEquals(150, Money.of(new BigDecimal("1.5")).getCents());
+        assertNull(Money.of(null));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void shouldRejectAmountsBeyondLongCents() {
+        Money.of(BigDecimal.valueOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void shouldDoArithmeticInCents() {
+        Money price = Money.ofCents(1999);
+
+        assertEquals(Money.ofCents(5997), price.times(3));
+        assertEquals(Money.ofCents(6097), Money.ofCents(100).plus(price, 3));
+        assertEquals(Money.ofCents(2), Money.ofCents(4000).minus(price, 2));
+        assertEquals(Money.ofCents(2099), price.plus(Money.ofCents(100)));
+        assertSame(Money.ZERO, price.minus(price, 1));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void plusShouldThrowOnAddOverflow() {
+        Money.ofCents(Long.MAX_VALUE).plus(Money.ofCents(1), 1);
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void plusShouldThrowOnMultiplyOverflow() {
+        Money.ZERO.plus(Money.ofCents(Long.MAX_VALUE / 2 + 1), 2);
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void minusShouldThrowOnOverflow() {
+        Money.ofCents(Long.MIN_VALUE).minus(Money.ofCents(1), 1);
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void timesShouldThrowOnOverflow() {
+        Money.ofCents(Long.MAX_VALUE).times(2);
+    }
+
+    @Test
+    public void shouldRoundTripThroughJsonWithTwoDecimals() throws Exception {
+        assertEquals("1.50", objectMapper.writeValueAsString(Money.ofCents(150)));
+        assertEquals("0.00", objectMapper.writeValueAsString(Money.ZERO));
+        assertEquals("-0.05", objectMapper.writeValueAsString(Money.ofCents(-5)));
+
+        assertEquals(Money.ofCents(150), objectMapper.readValue("1.5", Money.class));
+        assertEquals(Money.ofCents(101), objectMapper.readValue("1.005", Money.class));
+        Money money = Money.ofCents(123456789);
+        assertEquals(money, objectMapper.readValue(objectMapper.writeValueAsString(money), Money.class));
+        assertEquals(2, money.toBigDecimal().scale());
+    }
+
+    @Test
+    public void converterShouldPassNullThroughBothWays() {
+        MoneyConverter converter = new MoneyConverter();
+
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+
+    @Test
+    public void converterShouldStoreTwoDecimalPlaces() {
+        MoneyConverter converter = new MoneyConverter();
+
+        assertEquals(new BigDecimal("12.30"), converter.convertToDatabaseColumn(Money.ofCents(1230)));
+        assertEquals(Money.ofCents(1230), converter.convertToEntityAttribute(new BigDecimal("12.3")));
+        assertEquals(Money.ofCents(1230), converter.convertToEntityAttribute(new BigDecimal("12.3000")));
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.demo.outbox;
+
+import com.example.demo.model.persistence.Cart;
+import com.example.demo.model.persistence.Item;
+import com.example.demo.model.persistence.OutboxEvent;
+import com.example.demo.model.persistence.User;
+import com.example.demo.model.persistence.UserOrder;
+import com.example.demo.model.persistence.repositories.ItemRepository;
+import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.services.OrderEventOutbox;
+import com.example.demo.services.OrderService;
+import com.example.demo.services.OrderSubmissionQueue;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox;DB_CLOSE_DELAY=-1",
+        "order.async.workers=1",
+        "outbox.poll-interval-ms=3600000",
+        "outbox.gap-timeout-ms=300",
+        "outbox.sink.file.enabled=true",
+        "outbox.sink.file.path=target/outbox-test/events.jsonl"
+})
+public class OutboxDispatcherTest {
+
+    private static final Path EVENTS_FILE = Paths.get("target/outbox-test/events.jsonl");
+
+    @TestConfiguration
+    static class FlakySinkConfiguration {
+        @Bean
+        FlakySink flakySink() {
+            return new FlakySink();
+        }
+    }
+
+    static class FlakySink implements OutboxSink {
+        volatile boolean failing;
+        volatile int published;
+
+        @Override
+        public String getName() {
+            return "flaky";
+        }
+
+        @Override
+        public void publish(List<OutboxEvent> events) {
+            if (failing) {
+                throw new IllegalStateException("sink unavailable");
+            }
+            published += events.size();
+        }
+    }
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private InMemoryOutboxSink memorySink;
+
+    @Autowired
+    private FlakySink flakySink;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderSubmissionQueue orderSubmissionQueue;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User buyer;
+
+    @Before
+    public void setup() throws Exception {
+        flakySink.failing = false;
+        outboxDispatcher.dispatch();
+        Files.deleteIfExists(EVENTS_FILE);
+        buyer = userRepository.findByUsername("outbox-buyer");
+        if (buyer == null) {
+            buyer = new User();
+            buyer.setUsername("outbox-buyer");
+            buyer.setPassword("not-a-real-hash");
+            buyer.setCart(new Cart());
+            buyer = userRepository.save(buyer);
+        }
+    }
+
+    @Test
+    public void deliversSyncAndQueuedOrdersToEverySink() throws Exception {
+        int before = memorySink.getEvents().size();
+        UserOrder placed = transactionTemplate.execute(status -> orderService.place(UserOrder.createFromCart(cart(3))));
+        long written = orderSubmissionQueue.getWrittenCount();
+        assertNotNull(orderSubmissionQueue.submit(buyer, cart(2)));
+        for (int i = 0; i < 50 && orderSubmissionQueue.getWrittenCount() == written; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(written + 1, orderSubmissionQueue.getWrittenCount());
+
+        // A rolled back order in another test may leave a gap that only settles after the timeout.
+        Thread.sleep(400);
+        outboxDispatcher.dispatch();
+
+        List<OutboxEvent> events = memorySink.getEvents().subList(before, memorySink.getEvents().size());
+        assertEquals(2, events.size());
+        assertTrue(events.stream().allMatch(event -> OrderEventOutbox.ORDER_PLACED.equals(event.getType())));
+        assertEquals(placed.getId().longValue(), events.get(0).getAggregateId());
+        assertTrue(events.get(0).getPayload().contains("\"quantity\":3"));
+
+        List<String> lines = Files.readAllLines(EVENTS_FILE, StandardCharsets.UTF_8);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(1).contains("\"aggregateId\":" + events.get(1).getAggregateId()));
+
+        long last = events.get(1).getId();
+        assertEquals(Long.valueOf(last), jdbcTemplate.queryForObject(
+                "select last_event_id from outbox_offset where sink = 'file'", Long.class));
+        for (OutboxDispatcher.SinkStats stats : outboxDispatcher.getStats()) {
+            assertEquals(last, stats.getOffset());
+            assertEquals(0, stats.getLagEvents());
+        }
+    }
+
+    @Test
+    public void rolledBackOrderWritesNoEvent() {
+        long events = countEvents();
+        transactionTemplate.execute(status -> {
+            orderService.place(UserOrder.createFromCart(cart(1)));
+            status.setRollbackOnly();
+            return null;
+        });
+
+        assertEquals(events, countEvents());
+    }
+
+    @Test
+    public void failingSinkKeepsItsOffsetWithoutHoldingBackOthers() throws InterruptedException {
+        flakySink.failing = true;
+        int published = flakySink.published;
+        transactionTemplate.execute(status -> orderService.place(UserOrder.createFromCart(cart(1))));
+
+        Thread.sleep(400);
+        outboxDispatcher.dispatch();
+
+        OutboxDispatcher.SinkStats memory = stats("memory");
+        OutboxDispatcher.SinkStats flaky = stats("flaky");
+        assertEquals(0, memory.getLagEvents());
+        assertEquals(1, flaky.getLagEvents());
+        assertTrue(flaky.getFailures() > 0);
+
+        flakySink.failing = false;
+        outboxDispatcher.dispatch();
+
+        assertEquals(published + 1, flakySink.published);
+        assertEquals(memory.getOffset(), stats("flaky").getOffset());
+    }
+
+    @Test
+    public void waitsForGapToSettleBeforeSkippingIt() throws InterruptedException {
+        long offset = stats("memory").getOffset();
+        transactionTemplate.execute(status -> orderService.place(UserOrder.createFromCart(cart(1))));
+        transactionTemplate.execute(status -> orderService.place(UserOrder.createFromCart(cart(2))));
+        long head = jdbcTemplate.queryForObject("select max(id) from outbox_event", Long.class);
+        // Removing the first event leaves the gap an insert still in flight would.
+        jdbcTemplate.update("delete from outbox_event where id = ?", head - 1);
+
+        outboxDispatcher.dispatch();
+        assertEquals(offset, stats("memory").getOffset());
+
+        Thread.sleep(400);
+        outboxDispatcher.dispatch();
+        assertEquals(head, stats("memory").getOffset());
+    }
+
+    private OutboxDispatcher.SinkStats stats(String sink) {
+        return outboxDispatcher.getStats().stream()
+                .filter(stats -> stats.getSink().equals(sink))
+                .collect(Collectors.toList()).get(0);
+    }
+
+    private long countEvents() {
+        return jdbcTemplate.queryForObject("select count(*) from outbox_event", Long.class);
+    }
+
+    private Cart cart(int quantity) {
+        Item item = itemRepository.findById(1L).get();
+        Cart cart = new Cart();
+        cart.setUser(buyer);
+        cart.addItem(item, quantity);
+        return cart;
+    }
+}
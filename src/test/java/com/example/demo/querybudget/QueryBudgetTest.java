@@ -0,0 +1,132 @@
+package com.example.demo.querybudget;
+
+import com.example.demo.model.persistence.repositories.UserRepository;
+import com.example.demo.security.Constants;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.junit.Assert.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query-budget;DB_CLOSE_DELAY=-1",
+        "security.bcrypt.strength=4",
+        "query-budget.enforce=true"
+})
+@AutoConfigureMockMvc
+@Import(QueryBudgetTest.OverBudgetController.class)
+public class QueryBudgetTest {
+
+    private static final String USERNAME = "budget-user";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private String token;
+
+    @Before
+    public void login() throws Exception {
+        if (userRepository.findByUsername(USERNAME) == null) {
+            mockMvc.perform(post("/api/user/create").contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"username\":\"" + USERNAME + "\",\"password\":\"password1\",\"confirmPassword\":\"password1\"}"))
+                    .andExpect(status().isOk());
+        }
+        token = mockMvc.perform(post("/login").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"" + USERNAME + "\",\"password\":\"password1\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(Constants.HEADER_STRING);
+    }
+
+    @Test
+    public void shoppingEndpointsStayWithinTheirBudgets() throws Exception {
+        String addOne = "{\"username\":\"" + USERNAME + "\",\"itemId\":1,\"quantity\":1}";
+        mockMvc.perform(authenticated(get("/api/item"))).andExpect(status().isOk());
+        mockMvc.perform(authenticated(get("/api/item?limit=10"))).andExpect(status().isOk());
+        mockMvc.perform(authenticated(get("/api/item/1"))).andExpect(status().isOk());
+        mockMvc.perform(authenticated(get("/api/item/name/Round Widget"))).andExpect(status().isOk());
+        mockMvc.perform(authenticated(get("/api/user/" + USERNAME))).andExpect(status().isOk());
+        mockMvc.perform(authenticated(post("/api/cart/addToCart")).contentType(MediaType.APPLICATION_JSON).content(addOne))
+                .andExpect(status().isOk());
+        mockMvc.perform(authenticated(post("/api/cart/addToCart")).contentType(MediaType.APPLICATION_JSON).content(addOne))
+                .andExpect(status().isOk());
+        mockMvc.perform(authenticated(post("/api/cart/removeFromCart")).contentType(MediaType.APPLICATION_JSON).content(addOne))
+                .andExpect(status().isOk());
+        mockMvc.perform(authenticated(post("/api/cart/batch")).contentType(MediaType.APPLICATION_JSON).content("["
+                + "{\"username\":\"" + USERNAME + "\",\"itemId\":1,\"quantity\":2},"
+                + "{\"username\":\"" + USERNAME + "\",\"itemId\":2,\"quantity\":1}]"))
+                .andExpect(status().isOk());
+        mockMvc.perform(authenticated(post("/api/order/submit/" + USERNAME))).andExpect(status().isOk());
+        mockMvc.perform(authenticated(get("/api/order/history/" + USERNAME))).andExpect(status().isOk());
+        mockMvc.perform(authenticated(get("/api/item/search?q=widget"))).andExpect(status().isOk());
+        mockMvc.perform(authenticated(get("/api/item/suggest?prefix=Ro"))).andExpect(status().isOk());
+        mockMvc.perform(authenticated(get("/api/report/users/" + USERNAME))).andExpect(status().isOk());
+        mockMvc.perform(authenticated(get("/api/report/items/top"))).andExpect(status().isOk());
+        mockMvc.perform(authenticated(get("/api/report/daily?from=2026-01-01&to=2026-12-31"))).andExpect(status().isOk());
+    }
+
+    @Test
+    public void requestOverItsBudgetFailsWithItsStatements() throws Exception {
+        try {
+            mockMvc.perform(authenticated(get("/test/over-budget")));
+            fail("Expected the query budget to be exceeded");
+        } catch (QueryBudgetExceededException e) {
+            assertTrue(e.getMessage().startsWith("GET /test/over-budget ran 3 statements, budget 1"));
+            assertTrue(e.getMessage().contains("select count(*) from item"));
+            assertTrue(e.getMessage().contains("select count(*) from cart"));
+        }
+    }
+
+    @Test
+    public void sampledRequestOverBudgetIsOnlyLogged() throws Exception {
+        QueryBudgetFilter filter = new QueryBudgetFilter(false, 1.0, 1);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/item"), response, (request, ignored) -> {
+            QueryRecorder.current().record("select 1");
+            QueryRecorder.current().record("select 2");
+        });
+
+        assertEquals(200, response.getStatus());
+        assertNull(QueryRecorder.current());
+    }
+
+    private MockHttpServletRequestBuilder authenticated(MockHttpServletRequestBuilder request) {
+        return request.header(Constants.HEADER_STRING, token);
+    }
+
+    @TestConfiguration
+    @RestController
+    static class OverBudgetController {
+
+        @Autowired
+        private JdbcTemplate jdbcTemplate;
+
+        @QueryBudget(1)
+        @GetMapping("/test/over-budget")
+        public long countEverything() {
+            return jdbcTemplate.queryForObject("select count(*) from item", Long.class)
+                    + jdbcTemplate.queryForObject("select count(*) from cart", Long.class)
+                    + jdbcTemplate.queryForObject("select count(*) from user_order", Long.class);
+        }
+    }
+}
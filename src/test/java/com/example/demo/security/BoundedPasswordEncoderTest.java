@@ -0,0 +1,104 @@
+package com.example.demo.security;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class BoundedPasswordEncoderTest {
+
+    private BoundedPasswordEncoder encoder;
+
+    @After
+    public void tearDown() {
+        encoder.shutdown();
+    }
+
+    @Test
+    public void hashesAndChecksOnThePool() {
+        encoder = new BoundedPasswordEncoder(4, 2, 4, 5_000);
+
+        String hash = encoder.encode("password123");
+
+        assertTrue(encoder.matches("password123", hash));
+        assertFalse(encoder.matches("wrong", hash));
+        BoundedPasswordEncoder.Stats stats = encoder.getStats();
+        assertEquals(3, stats.getHashes());
+        assertEquals(0, stats.getRejected());
+        assertTrue(stats.getMaxHashMillis() > 0);
+    }
+
+    @Test
+    public void rejectsAtOnceWhenQueueIsFull() throws InterruptedException {
+        // Strength 14 keeps the single worker busy long enough to fill the queue behind it.
+        encoder = new BoundedPasswordEncoder(14, 1, 1, 5_000);
+        Thread running = new Thread(() -> encodeIgnoringRejection("first"));
+        Thread queued = new Thread(() -> encodeIgnoringRejection("second"));
+        running.start();
+        awaitCondition(() -> encoder.getStats().getActiveThreads() == 1);
+        queued.start();
+        awaitCondition(() -> encoder.getStats().getQueueDepth() == 1);
+
+        long started = System.nanoTime();
+        try {
+            encoder.encode("third");
+            fail("Expected the full queue to reject the request");
+        } catch (PasswordHashingRejectedException expected) {
+        }
+
+        assertTrue(System.nanoTime() - started < TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(1, encoder.getStats().getRejected());
+        encoder.shutdown();
+        queued.join(1_000);
+        assertFalse("Queued request should fail as soon as the pool shuts down", queued.isAlive());
+        running.join();
+    }
+
+    @Test
+    public void rejectsRequestThatWaitsPastTimeout() {
+        encoder = new BoundedPasswordEncoder(14, 1, 1, 50);
+
+        try {
+            encoder.encode("slow");
+            fail("Expected the request to time out");
+        } catch (PasswordHashingRejectedException expected) {
+        }
+
+        assertEquals(1, encoder.getStats().getTimedOut());
+    }
+
+    @Test
+    public void timedOutRequestGivesUpItsQueueSlot() {
+        // The first request times out while its hash keeps the only worker busy; the ones
+        // after it queue, time out and must leave the single slot free for the next.
+        encoder = new BoundedPasswordEncoder(14, 1, 1, 50);
+
+        for (int i = 0; i < 3; i++) {
+            try {
+                encoder.encode("slow");
+                fail("Expected the request to time out");
+            } catch (PasswordHashingRejectedException expected) {
+            }
+        }
+
+        assertEquals(3, encoder.getStats().getTimedOut());
+        assertEquals(0, encoder.getStats().getRejected());
+        assertEquals(0, encoder.getStats().getQueueDepth());
+    }
+
+    private void encodeIgnoringRejection(String password) {
+        try {
+            encoder.encode(password);
+        } catch (PasswordHashingRejectedException expected) {
+        }
+    }
+
+    private static void awaitCondition(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 500 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.demo.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import org.junit.Test;
+
+import java.util.Date;
+
+import static com.auth0.jwt.algorithms.Algorithm.HMAC512;
+import static org.junit.Assert.*;
+
+public class TokenVerifierTest {
+
+    private final TokenVerifier tokenVerifier = new TokenVerifier(10, 60);
+
+    @Test
+    public void repeatedTokenIsServedFromCache() {
+        String token = token("alice", System.currentTimeMillis() + 60_000);
+
+        assertEquals("alice", tokenVerifier.verify(token).getUsername());
+        assertEquals("alice", tokenVerifier.verify(token).getUsername());
+
+        assertEquals(1, tokenVerifier.stats().getHits());
+        assertEquals(1, tokenVerifier.stats().getSize());
+    }
+
+    @Test
+    public void exposesIdClaimsOnThePrincipal() {
+        AuthenticatedUser user = tokenVerifier.verify(JWT.create()
+                .withSubject("carol")
+                .withClaim(Constants.USER_ID_CLAIM, 7L)
+                .withClaim(Constants.CART_ID_CLAIM, 11L)
+                .withExpiresAt(new Date(System.currentTimeMillis() + 60_000))
+                .sign(TokenVerifier.ALGORITHM));
+
+        assertEquals("carol", user.getName());
+        assertEquals(Long.valueOf(7L), user.getUserId());
+        assertEquals(Long.valueOf(11L), user.getCartId());
+    }
+
+    @Test
+    public void tokenWithoutIdClaimsStillAuthenticates() {
+        AuthenticatedUser user = tokenVerifier.verify(token("dave", System.currentTimeMillis() + 60_000));
+
+        assertEquals("dave", user.getUsername());
+        assertNull(user.getUserId());
+        assertNull(user.getCartId());
+    }
+
+    @Test(expected = JWTVerificationException.class)
+    public void rejectsTokenSignedWithAnotherSecret() {
+        tokenVerifier.verify(JWT.create()
+                .withSubject("mallory")
+                .withExpiresAt(new Date(System.currentTimeMillis() + 60_000))
+                .sign(HMAC512("another-secret".getBytes())));
+    }
+
+    @Test
+    public void cachedTokenIsNotTrustedPastItsExpiry() throws InterruptedException {
+        String token = token("bob", System.currentTimeMillis() + 1_000);
+        assertEquals("bob", tokenVerifier.verify(token).getUsername());
+
+        // The verifier compares whole seconds, so it still accepts the token for up to a second past exp.
+        Thread.sleep(2_100);
+
+        try {
+            tokenVerifier.verify(token);
+            fail("Expired token was accepted");
+        } catch (JWTVerificationException expected) {
+        }
+    }
+
+    private static String token(String subject, long expiresAt) {
+        return JWT.create()
+                .withSubject(subject)
+                .withExpiresAt(new Date(expiresAt))
+                .sign(TokenVerifier.ALGORITHM);
+    }
+}